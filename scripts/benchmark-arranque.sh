@@ -0,0 +1,61 @@
+#!/usr/bin/env bash
+#
+# Mide el tiempo hasta la primera petición correcta en cada modo de arranque.
+# El modo 5 arranca sin inicialización perezosa, como la ejecución que entrena el
+# archivo AppCDS; compararlo con el 4 muestra cuánto aporta la inicialización perezosa.
+#
+# Requisitos:
+#   mvn -Pfast-start package   (genera el JAR ligero, target/lib, target/app-cds.jsa y el JAR -exec)
+#   Base de datos accesible según DB_URL / DB_USERNAME / DB_PASSWORD
+#
+# Uso: scripts/benchmark-arranque.sh [repeticiones]
+#   URL_SONDA   URL consultada hasta obtener 2xx (por defecto /actuator/health)
+#   SERVER_PORT puerto del servicio (por defecto 8080)
+
+set -euo pipefail
+
+REPETICIONES="${1:-3}"
+PUERTO="${SERVER_PORT:-8080}"
+URL_SONDA="${URL_SONDA:-http://localhost:${PUERTO}/actuator/health}"
+DIR_TARGET="$(cd "$(dirname "$0")/.." && pwd)/target"
+
+JAR_LIGERO="$(ls "${DIR_TARGET}"/microservice-clientes-pedidos-*.jar | grep -v -- '-exec.jar' | head -n 1)"
+JAR_EXEC="$(ls "${DIR_TARGET}"/microservice-clientes-pedidos-*-exec.jar | head -n 1)"
+ARCHIVO_CDS="${DIR_TARGET}/app-cds.jsa"
+
+declare -A MODOS=(
+    ["1-estandar"]="-jar ${JAR_EXEC}"
+    ["2-lazy"]="-Dspring.profiles.active=fast-start -jar ${JAR_EXEC}"
+    ["3-lazy+aot"]="-Dspring.profiles.active=fast-start -Dspring.aot.enabled=true -jar ${JAR_LIGERO}"
+    ["4-lazy+aot+cds"]="-XX:SharedArchiveFile=${ARCHIVO_CDS} -Dspring.profiles.active=fast-start -Dspring.aot.enabled=true -jar ${JAR_LIGERO}"
+    ["5-aot+cds"]="-XX:SharedArchiveFile=${ARCHIVO_CDS} -Dspring.profiles.active=fast-start -Dspring.main.lazy-initialization=false -Dspring.aot.enabled=true -jar ${JAR_LIGERO}"
+)
+
+medir() {
+    local argumentos="$1"
+    local inicio fin pid
+    inicio=$(date +%s%N)
+    # shellcheck disable=SC2086
+    SERVER_PORT="${PUERTO}" java ${argumentos} > /dev/null 2>&1 &
+    pid=$!
+    until curl -sf -o /dev/null "${URL_SONDA}"; do
+        if ! kill -0 "${pid}" 2> /dev/null; then
+            echo "error"
+            return
+        fi
+        sleep 0.05
+    done
+    fin=$(date +%s%N)
+    kill "${pid}"
+    wait "${pid}" 2> /dev/null || true
+    echo $(( (fin - inicio) / 1000000 ))
+}
+
+printf "%-18s %s\n" "modo" "ms hasta la primera petición correcta"
+for modo in $(printf "%s\n" "${!MODOS[@]}" | sort); do
+    resultados=()
+    for _ in $(seq "${REPETICIONES}"); do
+        resultados+=("$(medir "${MODOS[$modo]}")")
+    done
+    printf "%-18s %s\n" "${modo}" "${resultados[*]}"
+done
@@ -0,0 +1,62 @@
+#!/usr/bin/env bash
+#
+# Mide la latencia de la búsqueda por prefijo de clientes sobre una tabla cargada
+# con muchos clientes (importación CSV).
+#
+# Requisitos:
+#   mvn package                (genera el JAR ejecutable)
+#   hey (https://github.com/rakyll/hey) en el PATH
+#   MySQL accesible según DB_URL / DB_USERNAME / DB_PASSWORD
+#
+# Uso: scripts/benchmark-busqueda.sh [duracion] [concurrencia] [clientes]
+#   SERVER_PORT puerto del servicio (por defecto 8080)
+#
+# Se mide la primera página por nombre, una página posterior (con cursor) y una
+# búsqueda que solo coincide por correo. El objetivo es una latencia de un
+# dígito en milisegundos independientemente del número de clientes.
+
+set -euo pipefail
+
+DURACION="${1:-30s}"
+CONCURRENCIA="${2:-50}"
+CLIENTES="${3:-1000000}"
+PUERTO="${SERVER_PORT:-8080}"
+BASE="http://localhost:${PUERTO}"
+DIR_TARGET="$(cd "$(dirname "$0")/.." && pwd)/target"
+JAR="$(ls "${DIR_TARGET}"/microservice-clientes-pedidos-*.jar | grep -v -- '-exec.jar' | head -n 1)"
+CSV="${DIR_TARGET}/benchmark-busqueda.csv"
+
+SERVER_PORT="${PUERTO}" java -jar "${JAR}" \
+    --multipedidos.limite-tasa.habilitado=false --multipedidos.limite-tasa.admision.habilitado=false > /dev/null 2>&1 &
+PID=$!
+trap 'kill "${PID}"; wait "${PID}" 2> /dev/null || true' EXIT
+until curl -sf -o /dev/null "${BASE}/actuator/health"; do
+    if ! kill -0 "${PID}" 2> /dev/null; then
+        echo "El servicio no arrancó" >&2
+        exit 1
+    fi
+    sleep 0.2
+done
+
+# Veinte apellidos repartidos por igual: cada prefijo de apellido coincide con un 5% de los clientes
+SEMILLA="$(date +%s)"
+awk -v n="${CLIENTES}" -v s="${SEMILLA}" 'BEGIN {
+    split("Garcia Lopez Martinez Sanchez Perez Gomez Martin Jimenez Ruiz Hernandez Diaz Moreno Alvarez Romero Alonso Gutierrez Navarro Torres Dominguez Vazquez", a, " ")
+    print "nombre,correo"
+    for (i = 1; i <= n; i++) printf "%s %07d,b%s.%07d@example.com\n", a[(i % 20) + 1], i, s, i
+}' > "${CSV}"
+curl -sf -o /dev/null -X POST "${BASE}/api/clientes/importar" -H 'Content-Type: text/csv' --data-binary "@${CSV}"
+
+CURSOR=$(curl -sf "${BASE}/api/clientes/buscar?q=Garcia&tamano=20" | sed -E 's/.*"siguiente":"([^"]*)".*/\1/')
+
+declare -A CONSULTAS=(
+    ["1-nombre"]="q=Garcia&tamano=20"
+    ["2-nombre-cursor"]="q=Garcia&tamano=20&cursor=${CURSOR}"
+    ["3-correo"]="q=b${SEMILLA}.00012&tamano=20"
+)
+
+for nombre in $(printf "%s\n" "${!CONSULTAS[@]}" | sort); do
+    # Resumen de hey: media, peticiones por segundo y percentiles 50/95/99
+    hey -z "${DURACION}" -c "${CONCURRENCIA}" "${BASE}/api/clientes/buscar?${CONSULTAS[$nombre]}" \
+        | awk -v n="${nombre}" '/Average:/ {m=$2} /Requests\/sec:/ {r=$2} /50%|95%|99%/ {p=p" "$1"="$3} END {printf "%-20s media=%ss req/s=%s%s\n", n, m, r, p}'
+done
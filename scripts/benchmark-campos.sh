@@ -0,0 +1,76 @@
+#!/usr/bin/env bash
+#
+# Compara el tamaño de la respuesta y la latencia de los pedidos de un cliente
+# completos frente a los campos seleccionados con fields=.
+#
+# Requisitos:
+#   mvn package                (genera el JAR ejecutable)
+#   hey (https://github.com/rakyll/hey) en el PATH
+#   MySQL accesible según DB_URL / DB_USERNAME / DB_PASSWORD
+#
+# Uso: scripts/benchmark-campos.sh [duracion] [concurrencia] [pedidos]
+#   SERVER_PORT puerto del servicio (por defecto 8080)
+#
+# Con fields=id,total la consulta usa una proyección y no carga los productos.
+# Además de bytes y latencia se cuentan las sentencias SQL por petición: se activa
+# el log de org.hibernate.SQL durante unas pocas peticiones (vía /actuator/loggers),
+# se cuentan las líneas SELECT del log y se vuelve a desactivar antes de medir la latencia.
+
+set -euo pipefail
+
+DURACION="${1:-30s}"
+CONCURRENCIA="${2:-50}"
+PEDIDOS="${3:-50}"
+PUERTO="${SERVER_PORT:-8080}"
+BASE="http://localhost:${PUERTO}"
+DIR_TARGET="$(cd "$(dirname "$0")/.." && pwd)/target"
+JAR="$(ls "${DIR_TARGET}"/microservice-clientes-pedidos-*.jar | grep -v -- '-exec.jar' | head -n 1)"
+
+LOG="${DIR_TARGET}/benchmark-campos.log"
+MUESTRAS=10
+
+SERVER_PORT="${PUERTO}" java -jar "${JAR}" --management.endpoints.web.exposure.include=health,loggers \
+    --multipedidos.limite-tasa.habilitado=false --multipedidos.limite-tasa.admision.habilitado=false > "${LOG}" 2>&1 &
+PID=$!
+trap 'kill "${PID}"; wait "${PID}" 2> /dev/null || true' EXIT
+until curl -sf -o /dev/null "${BASE}/actuator/health"; do
+    if ! kill -0 "${PID}" 2> /dev/null; then
+        echo "El servicio no arrancó" >&2
+        exit 1
+    fi
+    sleep 0.2
+done
+
+correo="campos-$(date +%s%N)@example.com"
+CLIENTE_ID=$(curl -sf -X POST "${BASE}/api/clientes" -H 'Content-Type: application/json' \
+    -d "{\"nombre\":\"Campos\",\"correo\":\"${correo}\"}" | sed -E 's/.*"id":([0-9]+).*/\1/')
+PEDIDO="{\"clienteId\":${CLIENTE_ID},\"productos\":[{\"nombre\":\"Teclado\",\"precio\":25.50},{\"nombre\":\"Ratón\",\"precio\":12.00},{\"nombre\":\"Monitor\",\"precio\":180.00}]}"
+for _ in $(seq "${PEDIDOS}"); do
+    curl -sf -o /dev/null -X POST "${BASE}/api/pedidos" -H 'Content-Type: application/json' -d "${PEDIDO}"
+done
+
+declare -A CONSULTAS=(
+    ["1-completo"]=""
+    ["2-fields=id,total"]="?fields=id,total"
+)
+
+nivel_sql() {
+    curl -sf -o /dev/null -X POST "${BASE}/actuator/loggers/org.hibernate.SQL" \
+        -H 'Content-Type: application/json' -d "{\"configuredLevel\":$1}"
+}
+
+for nombre in $(printf "%s\n" "${!CONSULTAS[@]}" | sort); do
+    url="${BASE}/api/pedidos/cliente/${CLIENTE_ID}${CONSULTAS[$nombre]}"
+    bytes=$(curl -sf -o /dev/null -w '%{size_download}' "${url}")
+    # Sentencias por petición; la caché de lecturas compartidas no interviene en peticiones secuenciales
+    nivel_sql '"DEBUG"'
+    antes=$(grep -ci ' - select ' "${LOG}" || true)
+    for _ in $(seq "${MUESTRAS}"); do
+        curl -sf -o /dev/null "${url}"
+    done
+    sentencias=$(( ($(grep -ci ' - select ' "${LOG}" || true) - antes) / MUESTRAS ))
+    nivel_sql null
+    # Resumen de hey: media, peticiones por segundo y percentiles 50/95/99
+    hey -z "${DURACION}" -c "${CONCURRENCIA}" "${url}" \
+        | awk -v n="${nombre}" -v b="${bytes}" -v q="${sentencias}" '/Average:/ {m=$2} /Requests\/sec:/ {r=$2} /50%|95%|99%/ {p=p" "$1"="$3} END {printf "%-20s bytes=%s sql/petición=%s media=%ss req/s=%s%s\n", n, b, q, m, r, p}'
+done
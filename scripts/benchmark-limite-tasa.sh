@@ -0,0 +1,61 @@
+#!/usr/bin/env bash
+#
+# Mide el coste del filtro de limitación de tasa en la ruta de la petición.
+#
+# Requisitos:
+#   mvn package                (genera el JAR ejecutable)
+#   hey (https://github.com/rakyll/hey) en el PATH
+#   MySQL accesible según DB_URL / DB_USERNAME / DB_PASSWORD
+#
+# Uso: scripts/benchmark-limite-tasa.sh [duracion] [concurrencia]
+#   SERVER_PORT puerto del servicio (por defecto 8080)
+#
+# Compara la latencia de GET cliente sin filtro, con el filtro y una cubeta por
+# cliente, y con el mapa de cubetas lleno (todas las peticiones usan la cubeta
+# de desbordamiento). Los límites se elevan para que ninguna petición reciba 429
+# y el control de admisión se desactiva para medir solo el limitador.
+
+set -euo pipefail
+
+DURACION="${1:-30s}"
+CONCURRENCIA="${2:-50}"
+PUERTO="${SERVER_PORT:-8080}"
+BASE="http://localhost:${PUERTO}"
+DIR_TARGET="$(cd "$(dirname "$0")/.." && pwd)/target"
+JAR="$(ls "${DIR_TARGET}"/microservice-clientes-pedidos-*.jar | grep -v -- '-exec.jar' | head -n 1)"
+LIMITES="--multipedidos.limite-tasa.por-defecto.capacidad=1000000 --multipedidos.limite-tasa.por-defecto.recarga-por-segundo=1000000 --multipedidos.limite-tasa.admision.habilitado=false"
+
+declare -A MODOS=(
+    ["1-sin-filtro"]="--multipedidos.limite-tasa.habilitado=false"
+    ["2-cubeta-por-cliente"]="${LIMITES}"
+    ["3-desbordamiento"]="${LIMITES} --multipedidos.limite-tasa.max-cubetas=0"
+)
+
+arrancar() {
+    # shellcheck disable=SC2086
+    SERVER_PORT="${PUERTO}" java -jar "${JAR}" $1 > /dev/null 2>&1 &
+    PID=$!
+    until curl -sf -o /dev/null "${BASE}/actuator/health"; do
+        if ! kill -0 "${PID}" 2> /dev/null; then
+            echo "El servicio no arrancó" >&2
+            exit 1
+        fi
+        sleep 0.2
+    done
+}
+
+detener() {
+    kill "${PID}"
+    wait "${PID}" 2> /dev/null || true
+}
+
+for modo in $(printf "%s\n" "${!MODOS[@]}" | sort); do
+    arrancar "${MODOS[$modo]}"
+    correo="tasa-$(date +%s%N)@example.com"
+    CLIENTE_ID=$(curl -sf -X POST "${BASE}/api/clientes" -H 'Content-Type: application/json' \
+        -d "{\"nombre\":\"Tasa\",\"correo\":\"${correo}\"}" | sed -E 's/.*"id":([0-9]+).*/\1/')
+    # Resumen de hey: media, peticiones por segundo, percentiles 50/95/99 y códigos de estado
+    hey -z "${DURACION}" -c "${CONCURRENCIA}" -H "X-API-Key: benchmark" "${BASE}/api/clientes/${CLIENTE_ID}" \
+        | awk -v n="${modo}" '/Average:/ {m=$2} /Requests\/sec:/ {r=$2} /50%|95%|99%/ {p=p" "$1"="$3} /\[[0-9]+\]/ {c=c" "$1$2} END {printf "%-22s media=%ss req/s=%s%s%s\n", n, m, r, p, c}'
+    detener
+done
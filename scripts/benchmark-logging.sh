@@ -0,0 +1,81 @@
+#!/usr/bin/env bash
+#
+# Compara la latencia y el rendimiento con registro síncrono (antes) y con el
+# registro asíncrono y muestreado del perfil "production" (después), en la lectura
+# de un cliente, el listado de pedidos de un cliente y la creación de pedidos.
+#
+# Requisitos:
+#   mvn package                (genera el JAR ejecutable)
+#   hey (https://github.com/rakyll/hey) en el PATH
+#   MySQL accesible según DB_URL / DB_USERNAME / DB_PASSWORD
+#
+# Uso: scripts/benchmark-logging.sh [duracion] [concurrencia]
+#   SERVER_PORT puerto del servicio (por defecto 8080)
+#
+# El perfil "production" incluye "pool-ajustado"; el grupo se vacía en todos los
+# modos para medir solo el registro. Los modos con DEBUG registran cada petición
+# y fuerzan el coste de escritura. La salida va a target/benchmark-logging-*.log
+# y no a /dev/null, para que escribir tenga un coste real.
+
+set -euo pipefail
+
+DURACION="${1:-30s}"
+CONCURRENCIA="${2:-50}"
+PUERTO="${SERVER_PORT:-8080}"
+BASE="http://localhost:${PUERTO}"
+DIR_TARGET="$(cd "$(dirname "$0")/.." && pwd)/target"
+JAR="$(ls "${DIR_TARGET}"/microservice-clientes-pedidos-*.jar | grep -v -- '-exec.jar' | head -n 1)"
+COMUNES="--spring.profiles.group.production= --multipedidos.limite-tasa.habilitado=false --multipedidos.limite-tasa.admision.habilitado=false"
+DEBUG="--logging.level.com.multipedidos=DEBUG --multipedidos.registro-peticiones.tasa-muestreo=1.0"
+
+declare -A MODOS=(
+    ["1-sincrono-debug"]="${DEBUG}"
+    ["2-asincrono-debug"]="--spring.profiles.active=production ${DEBUG}"
+    ["3-produccion"]="--spring.profiles.active=production"
+)
+
+arrancar() {
+    # shellcheck disable=SC2086
+    SERVER_PORT="${PUERTO}" java -jar "${JAR}" ${COMUNES} $1 > "${DIR_TARGET}/benchmark-logging-$2.log" 2>&1 &
+    PID=$!
+    until curl -sf -o /dev/null "${BASE}/actuator/health"; do
+        if ! kill -0 "${PID}" 2> /dev/null; then
+            echo "El servicio no arrancó" >&2
+            exit 1
+        fi
+        sleep 0.2
+    done
+}
+
+detener() {
+    kill "${PID}"
+    wait "${PID}" 2> /dev/null || true
+}
+
+preparar_datos() {
+    local correo="logging-$(date +%s%N)@example.com"
+    CLIENTE_ID=$(curl -sf -X POST "${BASE}/api/clientes" -H 'Content-Type: application/json' \
+        -d "{\"nombre\":\"Logging\",\"correo\":\"${correo}\"}" | sed -E 's/.*"id":([0-9]+).*/\1/')
+    PEDIDO="{\"clienteId\":${CLIENTE_ID},\"productos\":[{\"nombre\":\"Teclado\",\"precio\":25.50},{\"nombre\":\"Ratón\",\"precio\":12.00}]}"
+    for _ in $(seq 20); do
+        curl -sf -o /dev/null -X POST "${BASE}/api/pedidos" -H 'Content-Type: application/json' -d "${PEDIDO}"
+    done
+}
+
+medir() {
+    local nombre="$1"
+    shift
+    # Resumen de hey: media, peticiones por segundo y percentiles 50/95/99
+    hey -z "${DURACION}" -c "${CONCURRENCIA}" "$@" \
+        | awk -v n="${nombre}" '/Average:/ {m=$2} /Requests\/sec:/ {r=$2} /50%|95%|99%/ {p=p" "$1"="$3} END {printf "  %-22s media=%ss req/s=%s%s\n", n, m, r, p}'
+}
+
+for modo in $(printf "%s\n" "${!MODOS[@]}" | sort); do
+    echo "${modo}"
+    arrancar "${MODOS[$modo]}" "${modo}"
+    preparar_datos
+    medir "GET cliente" "${BASE}/api/clientes/${CLIENTE_ID}"
+    medir "GET pedidos cliente" "${BASE}/api/pedidos/cliente/${CLIENTE_ID}"
+    medir "POST pedido" -m POST -H 'Content-Type: application/json' -d "${PEDIDO}" "${BASE}/api/pedidos"
+    detener
+done
@@ -0,0 +1,85 @@
+#!/usr/bin/env bash
+#
+# Compara la latencia con el pool por defecto y con el perfil "pool-ajustado"
+# (tamaño por núcleos, caché de sentencias preparadas y calentamiento).
+#
+# Requisitos:
+#   mvn package                (genera el JAR ejecutable)
+#   hey (https://github.com/rakyll/hey) en el PATH
+#   MySQL accesible según DB_URL / DB_USERNAME / DB_PASSWORD
+#   DB_CPU_CORES con los núcleos del servidor MySQL (el perfil ajustado no arranca sin él)
+#
+# Uso: scripts/prueba-carga.sh [duracion] [concurrencia]
+#   SERVER_PORT puerto del servicio (por defecto 8080)
+#
+# Cada modo arranca el servicio y, en cuanto pasa su sonda, crea un cliente con
+# pedidos y mide las rutas calientes: GET cliente, pedidos del cliente y creación
+# de pedidos. Los primeros segundos reflejan el efecto del calentamiento. El límite de tasa se desactiva para no medir respuestas 429.
+
+set -euo pipefail
+
+: "${DB_CPU_CORES:?Indica en DB_CPU_CORES los núcleos del servidor MySQL}"
+
+DURACION="${1:-30s}"
+CONCURRENCIA="${2:-50}"
+PUERTO="${SERVER_PORT:-8080}"
+BASE="http://localhost:${PUERTO}"
+DIR_TARGET="$(cd "$(dirname "$0")/.." && pwd)/target"
+JAR="$(ls "${DIR_TARGET}"/microservice-clientes-pedidos-*.jar | grep -v -- '-exec.jar' | head -n 1)"
+COMUNES="--multipedidos.limite-tasa.habilitado=false --multipedidos.limite-tasa.admision.habilitado=false"
+
+declare -A MODOS=(
+    ["1-por-defecto"]=""
+    ["2-pool-ajustado"]="--spring.profiles.active=pool-ajustado"
+)
+# Con el perfil ajustado se espera a la sonda de readiness, que incluye el calentamiento
+declare -A SONDAS=(
+    ["1-por-defecto"]="/actuator/health"
+    ["2-pool-ajustado"]="/actuator/health/readiness"
+)
+
+arrancar() {
+    # shellcheck disable=SC2086
+    SERVER_PORT="${PUERTO}" java -jar "${JAR}" ${COMUNES} $1 > /dev/null 2>&1 &
+    PID=$!
+    until curl -sf -o /dev/null "${BASE}$2"; do
+        if ! kill -0 "${PID}" 2> /dev/null; then
+            echo "El servicio no arrancó" >&2
+            exit 1
+        fi
+        sleep 0.2
+    done
+}
+
+detener() {
+    kill "${PID}"
+    wait "${PID}" 2> /dev/null || true
+}
+
+preparar_datos() {
+    local correo="carga-$(date +%s%N)@example.com"
+    CLIENTE_ID=$(curl -sf -X POST "${BASE}/api/clientes" -H 'Content-Type: application/json' \
+        -d "{\"nombre\":\"Carga\",\"correo\":\"${correo}\"}" | sed -E 's/.*"id":([0-9]+).*/\1/')
+    PEDIDO="{\"clienteId\":${CLIENTE_ID},\"productos\":[{\"nombre\":\"Teclado\",\"precio\":25.50},{\"nombre\":\"Ratón\",\"precio\":12.00}]}"
+    for _ in $(seq 20); do
+        curl -sf -o /dev/null -X POST "${BASE}/api/pedidos" -H 'Content-Type: application/json' -d "${PEDIDO}"
+    done
+}
+
+medir() {
+    local nombre="$1"
+    shift
+    # Resumen de hey: media y percentiles 50/95/99
+    hey -z "${DURACION}" -c "${CONCURRENCIA}" "$@" \
+        | awk -v n="${nombre}" '/Average:/ {m=$2} /Requests\/sec:/ {r=$2} /50%|95%|99%/ {p=p" "$1"="$3} END {printf "  %-22s media=%ss req/s=%s%s\n", n, m, r, p}'
+}
+
+for modo in $(printf "%s\n" "${!MODOS[@]}" | sort); do
+    echo "${modo}"
+    arrancar "${MODOS[$modo]}" "${SONDAS[$modo]}"
+    preparar_datos
+    medir "GET cliente" "${BASE}/api/clientes/${CLIENTE_ID}"
+    medir "GET pedidos cliente" "${BASE}/api/pedidos/cliente/${CLIENTE_ID}"
+    medir "POST pedido" -m POST -H 'Content-Type: application/json' -d "${PEDIDO}" "${BASE}/api/pedidos"
+    detener
+done
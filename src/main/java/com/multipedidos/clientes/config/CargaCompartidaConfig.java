@@ -0,0 +1,56 @@
+package com.multipedidos.clientes.config;
+
+import com.multipedidos.clientes.dto.ClienteDTO;
+import com.multipedidos.clientes.dto.PedidoDTO;
+import com.multipedidos.clientes.dto.ProductoDTO;
+import com.multipedidos.clientes.service.CargaCompartida;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Configuración de las cargas compartidas (single-flight) usadas por los
+ * servicios para agrupar lecturas concurrentes idénticas.
+ * Cada carga declara cómo copiar su valor, ya que los DTO son mutables.
+ */
+@Configuration
+public class CargaCompartidaConfig {
+
+    @Bean
+    public CargaCompartida<Long, ClienteDTO> cargaClientes(MeterRegistry registry,
+                                                            PlatformTransactionManager transactionManager) {
+        return new CargaCompartida<>("clientes", registry, transaccionLectura(transactionManager),
+                CargaCompartidaConfig::copiarCliente);
+    }
+
+    @Bean
+    public CargaCompartida<Long, List<PedidoDTO>> cargaPedidosPorCliente(MeterRegistry registry,
+                                                                         PlatformTransactionManager transactionManager) {
+        return new CargaCompartida<>("pedidos-cliente", registry, transaccionLectura(transactionManager),
+                pedidos -> pedidos.stream()
+                        .map(CargaCompartidaConfig::copiarPedido)
+                        .collect(Collectors.toList()));
+    }
+
+    private static ClienteDTO copiarCliente(ClienteDTO cliente) {
+        return cliente.toBuilder().build();
+    }
+
+    private static PedidoDTO copiarPedido(PedidoDTO pedido) {
+        List<ProductoDTO> productos = pedido.getProductos() == null ? null : pedido.getProductos().stream()
+                .map(producto -> producto.toBuilder().build())
+                .collect(Collectors.toList());
+        return pedido.toBuilder().productos(productos).build();
+    }
+
+    private TransactionTemplate transaccionLectura(PlatformTransactionManager transactionManager) {
+        TransactionTemplate template = new TransactionTemplate(transactionManager);
+        template.setReadOnly(true);
+        return template;
+    }
+}
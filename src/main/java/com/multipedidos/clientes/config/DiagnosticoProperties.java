@@ -0,0 +1,57 @@
+package com.multipedidos.clientes.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
+
+/**
+ * Propiedades de diagnóstico: eventos JFR, grabaciones bajo demanda y registro
+ * de consultas lentas (prefijo {@code multipedidos.diagnostico}).
+ */
+@Component
+@ConfigurationProperties(prefix = "multipedidos.diagnostico")
+@Data
+public class DiagnosticoProperties {
+
+    /**
+     * Emite eventos JFR de peticiones, controladores, servicios, repositorios y conexiones.
+     * Desactivado por defecto: además de los eventos, envuelve cada conexión y sentencia en proxies.
+     */
+    private boolean eventosJfr = false;
+
+    private Grabacion grabacion = new Grabacion();
+
+    private ConsultaLenta consultaLenta = new ConsultaLenta();
+
+    @Data
+    public static class Grabacion {
+
+        /**
+         * Registra el endpoint de actuator {@code jfr}. Solo se publica por HTTP si además
+         * se incluye en la exposición, lo que hace el perfil {@code gestion} en el puerto de gestión.
+         */
+        private boolean habilitada = false;
+
+        /** Duración máxima de una grabación; las peticiones mayores se rechazan. */
+        private Duration duracionMaxima = Duration.ofMinutes(10);
+
+        /** Tamaño máximo de los datos retenidos por la grabación. */
+        private DataSize tamanoMaximo = DataSize.ofMegabytes(100);
+
+        /** Grabaciones JFR en curso en la JVM (de cualquier origen) por encima de las cuales no se inicia otra. */
+        private int maximoGrabacionesActivas = 1;
+    }
+
+    @Data
+    public static class ConsultaLenta {
+
+        /** Sentencias que tardan más se registran con su SQL y tipos de parámetros. 0 lo desactiva. */
+        private Duration umbral = Duration.ZERO;
+
+        /** Caracteres máximos del SQL incluido en el registro. */
+        private int longitudMaximaSql = 2000;
+    }
+}
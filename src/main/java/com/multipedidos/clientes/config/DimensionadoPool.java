@@ -0,0 +1,60 @@
+package com.multipedidos.clientes.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Component;
+
+/**
+ * Dimensiona los pools de HikariCP según los núcleos del servidor de base de datos:
+ * {@code núcleos * 2 + discos efectivos}, la fórmula de partida de HikariCP.
+ *
+ * La fórmula da las conexiones que el servidor atiende bien en total, así que se
+ * reparte entre las {@code multipedidos.pool.instancias} de la aplicación. Los núcleos
+ * son los de la base de datos ({@code multipedidos.pool.nucleos-base-datos}), no los
+ * de esta máquina, y son obligatorios: sin ellos el arranque falla en lugar de seguir
+ * con el pool por defecto sin que nadie lo note. En modo fragmentado se aplica
+ * a cada shard ({@link ShardingConfig}), suponiendo que todos tienen esos núcleos.
+ * Un {@code spring.datasource.hikari.maximum-pool-size} explícito tiene prioridad.
+ */
+@Component
+@ConditionalOnProperty(name = "multipedidos.pool.dimensionar-por-nucleos", havingValue = "true")
+@Slf4j
+public class DimensionadoPool implements BeanPostProcessor {
+
+    private final Environment environment;
+
+    public DimensionadoPool(Environment environment) {
+        this.environment = environment;
+    }
+
+    @Override
+    public Object postProcessBeforeInitialization(Object bean, String beanName) {
+        if (bean instanceof HikariDataSource hikari
+                && !environment.containsProperty("spring.datasource.hikari.maximum-pool-size")) {
+            dimensionar(hikari);
+        }
+        return bean;
+    }
+
+    /**
+     * Fija el tamaño máximo del pool con la parte que corresponde a esta instancia.
+     */
+    public void dimensionar(HikariDataSource hikari) {
+        int nucleos = environment.getProperty("multipedidos.pool.nucleos-base-datos", Integer.class, 0);
+        if (nucleos <= 0) {
+            throw new IllegalStateException("No se puede dimensionar el pool '" + hikari.getPoolName()
+                    + "': falta multipedidos.pool.nucleos-base-datos (DB_CPU_CORES, núcleos del servidor de base de datos)."
+                    + " Indícalo, fija spring.datasource.hikari.maximum-pool-size o desactiva multipedidos.pool.dimensionar-por-nucleos");
+        }
+        int discos = environment.getProperty("multipedidos.pool.discos-efectivos", Integer.class, 1);
+        int instancias = Math.max(1, environment.getProperty("multipedidos.pool.instancias", Integer.class, 1));
+        int conexiones = Math.max(1, (nucleos * 2 + discos) / instancias);
+
+        hikari.setMaximumPoolSize(conexiones);
+        log.info("Pool '{}' dimensionado a {} conexiones ({} núcleos de base de datos, {} discos, {} instancias)",
+                hikari.getPoolName(), conexiones, nucleos, discos, instancias);
+    }
+}
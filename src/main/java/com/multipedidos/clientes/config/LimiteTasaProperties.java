@@ -0,0 +1,76 @@
+package com.multipedidos.clientes.config;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Propiedades de limitación de tasa y control de admisión
+ * (prefijo {@code multipedidos.limite-tasa}).
+ */
+@Component
+@ConfigurationProperties(prefix = "multipedidos.limite-tasa")
+@Data
+public class LimiteTasaProperties {
+
+    private boolean habilitado = true;
+
+    /**
+     * Cabecera que identifica al cliente (clave de API). Sin ella, o si está vacía,
+     * se usa la dirección remota. Debe validarla o fijarla el gateway: el servicio no
+     * autentica claves, y un cliente que la cambie en cada petición obtiene cubetas nuevas.
+     */
+    private String cabeceraCliente = "X-API-Key";
+
+    /**
+     * Límite aplicado a los endpoints sin configuración específica.
+     */
+    private Limite porDefecto = new Limite(100, 50);
+
+    /**
+     * Límites por endpoint, con claves del tipo {@code "POST /api/pedidos"}.
+     */
+    private Map<String, Limite> endpoints = new HashMap<>();
+
+    /**
+     * Número máximo de cubetas en memoria; por encima, los clientes nuevos
+     * comparten una cubeta por endpoint hasta la siguiente purga.
+     */
+    private int maxCubetas = 100_000;
+
+    /**
+     * Intervalo de la tarea que purga las cubetas inactivas.
+     */
+    private Duration intervaloPurga = Duration.ofSeconds(30);
+
+    private Admision admision = new Admision();
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Limite {
+        /** Ráfaga máxima de peticiones permitidas. */
+        private int capacidad;
+        /** Peticiones por segundo repuestas en la cubeta. */
+        private double recargaPorSegundo;
+    }
+
+    @Data
+    public static class Admision {
+        private boolean habilitado = true;
+        /** Peticiones concurrentes permitidas cuando el pool está holgado. */
+        private int concurrenciaMaxima = 200;
+        /** Límite inferior al que puede bajar la concurrencia bajo presión. */
+        private int concurrenciaMinima = 10;
+        /** Hilos esperando conexión a partir de los cuales se reduce el límite. */
+        private int umbralEsperaPool = 1;
+        /** Tiempo mínimo entre dos reducciones del límite. */
+        private Duration ventanaReduccion = Duration.ofSeconds(1);
+    }
+}
@@ -15,6 +15,7 @@ import io.swagger.v3.oas.models.media.BooleanSchema;
 import io.swagger.v3.oas.models.media.ArraySchema;
 import io.swagger.v3.oas.models.media.ObjectSchema;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 
@@ -33,8 +34,11 @@ import java.util.List;
  * Documentación disponible en:
  * - Swagger UI: http://localhost:8080/swagger-ui.html
  * - OpenAPI JSON: http://localhost:8080/api-docs
+ *
+ * Se omite cuando springdoc.api-docs.enabled=false (perfil fast-start).
  */
 @Configuration
+@ConditionalOnProperty(name = "springdoc.api-docs.enabled", havingValue = "true", matchIfMissing = true)
 public class OpenApiConfig {
 
     @Value("${server.port:8080}")
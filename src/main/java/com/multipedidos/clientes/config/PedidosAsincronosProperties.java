@@ -0,0 +1,32 @@
+package com.multipedidos.clientes.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+/**
+ * Propiedades de la creación asíncrona de pedidos
+ * (prefijo {@code multipedidos.pedidos-asincronos}).
+ */
+@Component
+@ConfigurationProperties(prefix = "multipedidos.pedidos-asincronos")
+@Data
+public class PedidosAsincronosProperties {
+
+    /** Pedidos que pueden esperar en cola antes de responder 503. */
+    private int capacidadCola = 10_000;
+
+    /** Hilos escritores que drenan la cola. */
+    private int escritores = 2;
+
+    /** Pedidos máximos guardados en una misma transacción. */
+    private int tamanoLote = 100;
+
+    /** Tiempo que se conserva el estado de una solicitud ya resuelta. */
+    private Duration retencionSolicitudes = Duration.ofMinutes(10);
+
+    /** Tiempo que se espera a los escritores al detener el servicio antes de guardar lo pendiente en la parada. */
+    private Duration esperaParada = Duration.ofSeconds(30);
+}
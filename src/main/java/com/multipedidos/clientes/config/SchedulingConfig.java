@@ -0,0 +1,14 @@
+package com.multipedidos.clientes.config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+/**
+ * Habilita las tareas programadas (@Scheduled) del microservicio.
+ * El planificador tiene un hilo por tarea ({@code spring.task.scheduling.pool.size}),
+ * para que los trabajos largos no retrasen las purgas periódicas.
+ */
+@Configuration
+@EnableScheduling
+public class SchedulingConfig {
+}
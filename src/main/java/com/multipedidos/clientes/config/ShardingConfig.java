@@ -0,0 +1,55 @@
+package com.multipedidos.clientes.config;
+
+import com.multipedidos.clientes.sharding.DataSourceEnrutado;
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.jdbc.DataSourceBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.sql.DataSource;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * DataSource del modo fragmentado: un pool Hikari por shard detrás de un
+ * {@link DataSourceEnrutado}. Sustituye al DataSource autoconfigurado de
+ * {@code spring.datasource}. El tamaño de cada pool es el indicado en el shard o,
+ * si no se indica, el que calcula {@link DimensionadoPool} cuando está activo.
+ */
+@Configuration
+@ConditionalOnProperty(name = "multipedidos.sharding.habilitado", havingValue = "true")
+public class ShardingConfig {
+
+    @Bean
+    public DataSource dataSource(ShardingProperties properties, ObjectProvider<DimensionadoPool> dimensionadoPool) {
+        if (properties.getShards().size() < 2) {
+            throw new IllegalStateException("El modo fragmentado necesita al menos dos shards en multipedidos.sharding.shards");
+        }
+        Map<Object, Object> pools = new LinkedHashMap<>();
+        for (ShardingProperties.Shard shard : properties.getShards()) {
+            HikariDataSource pool = DataSourceBuilder.create()
+                    .type(HikariDataSource.class)
+                    .url(shard.getUrl())
+                    .username(shard.getUsuario())
+                    .password(shard.getContrasena())
+                    .build();
+            pool.setPoolName("shard-" + shard.getNombre());
+            if (shard.getMaximoConexiones() != null) {
+                pool.setMaximumPoolSize(shard.getMaximoConexiones());
+            } else {
+                dimensionadoPool.ifAvailable(dimensionado -> dimensionado.dimensionar(pool));
+            }
+            pools.put(shard.getNombre(), pool);
+        }
+
+        DataSourceEnrutado enrutado = new DataSourceEnrutado();
+        enrutado.setTargetDataSources(pools);
+        enrutado.setDefaultTargetDataSource(pools.values().iterator().next());
+        // Un shard desconocido es un error de configuración, no debe caer en el primero
+        enrutado.setLenientFallback(false);
+        enrutado.afterPropertiesSet();
+        return enrutado;
+    }
+}
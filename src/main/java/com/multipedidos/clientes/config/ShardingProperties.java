@@ -0,0 +1,61 @@
+package com.multipedidos.clientes.config;
+
+import com.multipedidos.clientes.sharding.ColacionShards;
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Propiedades del modo fragmentado por cliente (prefijo {@code multipedidos.sharding}).
+ */
+@Component
+@ConfigurationProperties(prefix = "multipedidos.sharding")
+@Data
+public class ShardingProperties {
+
+    /** Reparte clientes y pedidos entre varias bases de datos. */
+    private boolean habilitado = false;
+
+    /**
+     * Bases de datos de los shards. El orden es significativo: el índice de cada
+     * shard forma parte de los IDs de pedido. Como el anillo no reubica datos, la lista
+     * no puede cambiar una vez hay clientes sin migrarlos antes (el arranque falla).
+     */
+    private List<Shard> shards = new ArrayList<>();
+
+    /** Nodos virtuales de cada shard en el anillo de hash consistente. */
+    private int nodosVirtuales = 128;
+
+    /** Hilos para consultar los shards en paralelo. */
+    private int hilosConsulta = 16;
+
+    /** IDs de cliente que cada instancia reserva de una vez en la secuencia global. */
+    private int tamanoBloqueIds = 100;
+
+    /**
+     * Colación de las columnas de texto en los shards; la mezcla de búsquedas entre
+     * shards ordena con ella. Debe coincidir con la de las bases de datos.
+     */
+    private ColacionShards colacion = ColacionShards.UNICODE;
+
+    @Data
+    public static class Shard {
+
+        private String nombre;
+
+        private String url;
+
+        private String usuario;
+
+        private String contrasena;
+
+        /**
+         * Conexiones máximas del pool de este shard. Sin indicar, las calcula
+         * {@link DimensionadoPool} si está activo y si no, el valor por defecto de HikariCP (10).
+         */
+        private Integer maximoConexiones;
+    }
+}
@@ -2,7 +2,13 @@ package com.multipedidos.clientes.controller;
 
 import com.multipedidos.clientes.dto.ClienteDTO;
 import com.multipedidos.clientes.dto.ClienteInputDTO;
+import com.multipedidos.clientes.dto.EstadisticasClienteDTO;
+import com.multipedidos.clientes.dto.LoteDTO;
+import com.multipedidos.clientes.dto.PaginaDTO;
+import com.multipedidos.clientes.dto.ResultadoImportacionDTO;
 import com.multipedidos.clientes.service.ClienteService;
+import com.multipedidos.clientes.service.EstadisticasClienteService;
+import com.multipedidos.clientes.service.ImportacionClientesService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
@@ -13,6 +19,8 @@ import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.io.IOException;
+import java.io.InputStream;
 import java.util.List;
 
 /**
@@ -25,6 +33,8 @@ import java.util.List;
 public class ClienteController {
 
     private final ClienteService clienteService;
+    private final EstadisticasClienteService estadisticasClienteService;
+    private final ImportacionClientesService importacionClientesService;
 
     @PostMapping
     @Operation(summary = "Crear un cliente", description = "Crea un nuevo cliente en el sistema")
@@ -37,6 +47,14 @@ public class ClienteController {
         return ResponseEntity.status(HttpStatus.CREATED).body(cliente);
     }
 
+    @PostMapping(value = "/importar", consumes = {"text/csv", "text/plain"})
+    @Operation(summary = "Importar clientes desde CSV", description = "Importa clientes desde un CSV con columnas nombre,correo leído en streaming; devuelve el resumen y las filas rechazadas")
+    @ApiResponse(responseCode = "200", description = "Importación procesada")
+    public ResponseEntity<ResultadoImportacionDTO> importarClientes(InputStream csv) throws IOException {
+        ResultadoImportacionDTO resultado = importacionClientesService.importar(csv);
+        return ResponseEntity.ok(resultado);
+    }
+
     @GetMapping
     @Operation(summary = "Listar todos los clientes", description = "Obtiene la lista completa de clientes")
     @ApiResponse(responseCode = "200", description = "Lista de clientes obtenida correctamente")
@@ -45,6 +63,41 @@ public class ClienteController {
         return ResponseEntity.ok(clientes);
     }
 
+    @GetMapping("/buscar")
+    @Operation(summary = "Buscar clientes", description = "Busca clientes cuyo nombre o correo empiece por el término indicado. La página siguiente se pide con el cursor devuelto en 'siguiente'")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Página de clientes obtenida correctamente"),
+            @ApiResponse(responseCode = "400", description = "Parámetros de búsqueda inválidos")
+    })
+    public ResponseEntity<PaginaDTO<ClienteDTO>> buscarClientes(@RequestParam("q") String termino,
+                                                                @RequestParam(required = false) String cursor,
+                                                                @RequestParam(defaultValue = "20") int tamano) {
+        PaginaDTO<ClienteDTO> resultado = clienteService.buscarClientes(termino, cursor, tamano);
+        return ResponseEntity.ok(resultado);
+    }
+
+    @GetMapping(params = "ids")
+    @Operation(summary = "Obtener varios clientes por ID", description = "Obtiene los clientes indicados en una sola consulta, en el orden solicitado, e informa de los IDs no encontrados")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Clientes encontrados e IDs no encontrados"),
+            @ApiResponse(responseCode = "400", description = "Lista de IDs vacía o demasiado grande")
+    })
+    public ResponseEntity<LoteDTO<ClienteDTO>> obtenerClientes(@RequestParam List<Long> ids) {
+        LoteDTO<ClienteDTO> resultado = clienteService.obtenerClientes(ids);
+        return ResponseEntity.ok(resultado);
+    }
+
+    @PostMapping("/lote")
+    @Operation(summary = "Obtener varios clientes por ID (POST)", description = "Equivalente a GET ?ids= para listas de IDs demasiado largas para la URL")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Clientes encontrados e IDs no encontrados"),
+            @ApiResponse(responseCode = "400", description = "Lista de IDs vacía o demasiado grande")
+    })
+    public ResponseEntity<LoteDTO<ClienteDTO>> obtenerClientesPorLote(@RequestBody List<Long> ids) {
+        LoteDTO<ClienteDTO> resultado = clienteService.obtenerClientes(ids);
+        return ResponseEntity.ok(resultado);
+    }
+
     @GetMapping("/{id}")
     @Operation(summary = "Obtener un cliente por ID", description = "Obtiene los detalles de un cliente específico")
     @ApiResponses(value = {
@@ -56,6 +109,18 @@ public class ClienteController {
         return ResponseEntity.ok(cliente);
     }
 
+    @GetMapping("/{id}/estadisticas")
+    @Operation(summary = "Obtener estadísticas de un cliente", description = "Obtiene la cantidad de pedidos, el gasto acumulado y la fecha del último pedido del cliente")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Estadísticas del cliente"),
+            @ApiResponse(responseCode = "404", description = "Cliente no encontrado")
+    })
+    public ResponseEntity<EstadisticasClienteDTO> obtenerEstadisticas(@PathVariable Long id) {
+        clienteService.obtenerCliente(id);
+        EstadisticasClienteDTO estadisticas = estadisticasClienteService.obtenerEstadisticas(id);
+        return ResponseEntity.ok(estadisticas);
+    }
+
     @PutMapping("/{id}")
     @Operation(summary = "Actualizar un cliente", description = "Actualiza la información de un cliente existente")
     @ApiResponses(value = {
@@ -1,7 +1,11 @@
 package com.multipedidos.clientes.controller;
 
+import com.multipedidos.clientes.dto.EstadoPedidoInputDTO;
+import com.multipedidos.clientes.dto.LoteDTO;
 import com.multipedidos.clientes.dto.PedidoDTO;
 import com.multipedidos.clientes.dto.PedidoInputDTO;
+import com.multipedidos.clientes.dto.SolicitudPedidoDTO;
+import com.multipedidos.clientes.service.PedidoAsincronoService;
 import com.multipedidos.clientes.service.PedidoService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
@@ -13,7 +17,10 @@ import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.net.URI;
 import java.util.List;
+import java.util.Set;
+import java.util.UUID;
 
 /**
  * Controlador REST para gestión de pedidos.
@@ -25,6 +32,7 @@ import java.util.List;
 public class PedidoController {
 
     private final PedidoService pedidoService;
+    private final PedidoAsincronoService pedidoAsincronoService;
 
     @PostMapping
     @Operation(summary = "Crear un pedido", description = "Crea un nuevo pedido con cálculo automático de total (IVA + descuentos)")
@@ -37,34 +45,95 @@ public class PedidoController {
         return ResponseEntity.status(HttpStatus.CREATED).body(pedido);
     }
 
+    @PostMapping("/async")
+    @Operation(summary = "Crear un pedido de forma asíncrona", description = "Valida el pedido y lo encola para su creación; el resultado se consulta con el ID de la solicitud")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "202", description = "Pedido aceptado y encolado"),
+            @ApiResponse(responseCode = "400", description = "Datos inválidos"),
+            @ApiResponse(responseCode = "503", description = "La cola de pedidos está llena")
+    })
+    public ResponseEntity<SolicitudPedidoDTO> crearPedidoAsincrono(@Valid @RequestBody PedidoInputDTO input) {
+        SolicitudPedidoDTO solicitud = pedidoAsincronoService.encolar(input);
+        return ResponseEntity.accepted()
+                .location(URI.create("/api/pedidos/solicitudes/" + solicitud.getId()))
+                .body(solicitud);
+    }
+
+    @GetMapping("/solicitudes/{solicitudId}")
+    @Operation(summary = "Consultar una solicitud de pedido", description = "Obtiene el estado de una solicitud de creación asíncrona de pedido")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Estado de la solicitud"),
+            @ApiResponse(responseCode = "404", description = "Solicitud no encontrada o expirada")
+    })
+    public ResponseEntity<SolicitudPedidoDTO> obtenerSolicitud(@PathVariable UUID solicitudId) {
+        SolicitudPedidoDTO solicitud = pedidoAsincronoService.obtenerSolicitud(solicitudId);
+        return ResponseEntity.ok(solicitud);
+    }
+
     @GetMapping
-    @Operation(summary = "Listar todos los pedidos", description = "Obtiene la lista completa de pedidos")
+    @Operation(summary = "Listar todos los pedidos", description = "Obtiene la lista completa de pedidos; fields=id,clienteId,total limita los campos y evita cargar los productos")
     @ApiResponse(responseCode = "200", description = "Lista de pedidos obtenida correctamente")
-    public ResponseEntity<List<PedidoDTO>> listarPedidos() {
-        List<PedidoDTO> pedidos = pedidoService.listarPedidos();
+    public ResponseEntity<List<PedidoDTO>> listarPedidos(@RequestParam(name = "fields", required = false) Set<String> campos) {
+        List<PedidoDTO> pedidos = pedidoService.listarPedidos(campos);
         return ResponseEntity.ok(pedidos);
     }
 
+    @GetMapping(params = "ids")
+    @Operation(summary = "Obtener varios pedidos por ID", description = "Obtiene los pedidos indicados en una sola consulta, en el orden solicitado, e informa de los IDs no encontrados")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Pedidos encontrados e IDs no encontrados"),
+            @ApiResponse(responseCode = "400", description = "Lista de IDs vacía o demasiado grande")
+    })
+    public ResponseEntity<LoteDTO<PedidoDTO>> obtenerPedidos(@RequestParam List<Long> ids) {
+        LoteDTO<PedidoDTO> resultado = pedidoService.obtenerPedidos(ids);
+        return ResponseEntity.ok(resultado);
+    }
+
+    @PostMapping("/lote")
+    @Operation(summary = "Obtener varios pedidos por ID (POST)", description = "Equivalente a GET ?ids= para listas de IDs demasiado largas para la URL")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Pedidos encontrados e IDs no encontrados"),
+            @ApiResponse(responseCode = "400", description = "Lista de IDs vacía o demasiado grande")
+    })
+    public ResponseEntity<LoteDTO<PedidoDTO>> obtenerPedidosPorLote(@RequestBody List<Long> ids) {
+        LoteDTO<PedidoDTO> resultado = pedidoService.obtenerPedidos(ids);
+        return ResponseEntity.ok(resultado);
+    }
+
     @GetMapping("/{id}")
-    @Operation(summary = "Obtener un pedido por ID", description = "Obtiene los detalles de un pedido específico")
+    @Operation(summary = "Obtener un pedido por ID", description = "Obtiene los detalles de un pedido específico; con incluirArchivados=true también busca en el archivo")
     @ApiResponses(value = {
             @ApiResponse(responseCode = "200", description = "Pedido encontrado"),
             @ApiResponse(responseCode = "404", description = "Pedido no encontrado")
     })
-    public ResponseEntity<PedidoDTO> obtenerPedido(@PathVariable Long id) {
-        PedidoDTO pedido = pedidoService.obtenerPedido(id);
+    public ResponseEntity<PedidoDTO> obtenerPedido(@PathVariable Long id,
+                                                   @RequestParam(defaultValue = "false") boolean incluirArchivados) {
+        PedidoDTO pedido = pedidoService.obtenerPedido(id, incluirArchivados);
         return ResponseEntity.ok(pedido);
     }
 
     @GetMapping("/cliente/{clienteId}")
-    @Operation(summary = "Obtener pedidos por cliente", description = "Obtiene todos los pedidos de un cliente específico")
+    @Operation(summary = "Obtener pedidos por cliente", description = "Obtiene todos los pedidos de un cliente específico; con incluirArchivados=true incluye los archivados")
     @ApiResponses(value = {
             @ApiResponse(responseCode = "200", description = "Lista de pedidos obtenida correctamente"),
             @ApiResponse(responseCode = "404", description = "Cliente no encontrado")
     })
-    public ResponseEntity<List<PedidoDTO>> obtenerPedidosPorCliente(@PathVariable Long clienteId) {
-        List<PedidoDTO> pedidos = pedidoService.listarPedidosPorCliente(clienteId);
+    public ResponseEntity<List<PedidoDTO>> obtenerPedidosPorCliente(@PathVariable Long clienteId,
+                                                                    @RequestParam(defaultValue = "false") boolean incluirArchivados,
+                                                                    @RequestParam(name = "fields", required = false) Set<String> campos) {
+        List<PedidoDTO> pedidos = pedidoService.listarPedidosPorCliente(clienteId, incluirArchivados, campos);
         return ResponseEntity.ok(pedidos);
     }
-}
 
+    @PatchMapping("/{id}/estado")
+    @Operation(summary = "Cambiar el estado de un pedido", description = "Cambia el estado de un pedido; COMPLETADO y CANCELADO son estados finales")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Estado actualizado correctamente"),
+            @ApiResponse(responseCode = "400", description = "Transición de estado no permitida"),
+            @ApiResponse(responseCode = "404", description = "Pedido no encontrado")
+    })
+    public ResponseEntity<PedidoDTO> actualizarEstado(@PathVariable Long id, @Valid @RequestBody EstadoPedidoInputDTO input) {
+        PedidoDTO pedido = pedidoService.actualizarEstado(id, input.getEstado());
+        return ResponseEntity.ok(pedido);
+    }
+}
@@ -0,0 +1,203 @@
+package com.multipedidos.clientes.diagnostico;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.io.Closeable;
+import java.io.IOException;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.CallableStatement;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * DataSource que mide la espera por conexiones del pool y registra las sentencias
+ * que superan el umbral de consulta lenta.
+ *
+ * De cada sentencia lenta se registra el SQL y el tipo de cada parámetro enlazado
+ * (nunca sus valores), tanto en el log como en un evento JFR.
+ * {@code DataSourceUnwrapper} sigue llegando al pool Hikari a través de este envoltorio.
+ * Al cerrar el contexto, {@link #close()} cierra el pool envuelto; sin él, Spring
+ * solo vería el envoltorio y el pool quedaría abierto.
+ */
+@Slf4j
+public class DataSourceDiagnostico extends DelegatingDataSource implements Closeable {
+
+    private final long umbralNanos;
+    private final int longitudMaximaSql;
+
+    public DataSourceDiagnostico(DataSource destino, Duration umbral, int longitudMaximaSql) {
+        super(destino);
+        this.umbralNanos = umbral.toNanos();
+        this.longitudMaximaSql = longitudMaximaSql;
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        EventoObtenerConexion evento = new EventoObtenerConexion();
+        evento.begin();
+        Connection conexion = super.getConnection();
+        evento.commit();
+        return envolver(conexion);
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        EventoObtenerConexion evento = new EventoObtenerConexion();
+        evento.begin();
+        Connection conexion = super.getConnection(username, password);
+        evento.commit();
+        return envolver(conexion);
+    }
+
+    @Override
+    public void close() throws IOException {
+        // HikariDataSource es Closeable
+        if (getTargetDataSource() instanceof Closeable destino) {
+            destino.close();
+        }
+    }
+
+    private Connection envolver(Connection conexion) {
+        if (umbralNanos <= 0) {
+            return conexion;
+        }
+        return (Connection) Proxy.newProxyInstance(getClass().getClassLoader(),
+                new Class<?>[]{Connection.class}, new ConexionHandler(conexion));
+    }
+
+    private static Object invocar(Object destino, Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(destino, args);
+        } catch (InvocationTargetException ex) {
+            throw ex.getTargetException();
+        }
+    }
+
+    private class ConexionHandler implements InvocationHandler {
+
+        private final Connection destino;
+
+        ConexionHandler(Connection destino) {
+            this.destino = destino;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            switch (method.getName()) {
+                case "equals":
+                    return proxy == args[0];
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                default:
+                    break;
+            }
+            Object resultado = invocar(destino, method, args);
+            if (resultado instanceof Statement sentencia) {
+                String sql = args != null && args.length > 0 && args[0] instanceof String s ? s : null;
+                Class<?> tipo = sentencia instanceof CallableStatement ? CallableStatement.class
+                        : sentencia instanceof PreparedStatement ? PreparedStatement.class
+                        : Statement.class;
+                return Proxy.newProxyInstance(getClass().getClassLoader(),
+                        new Class<?>[]{tipo}, new SentenciaHandler(sentencia, sql));
+            }
+            return resultado;
+        }
+    }
+
+    private class SentenciaHandler implements InvocationHandler {
+
+        private final Statement destino;
+        private final String sql;
+        private final List<String> tiposParametros = new ArrayList<>();
+        private int lotes;
+
+        SentenciaHandler(Statement destino, String sql) {
+            this.destino = destino;
+            this.sql = sql;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            String nombre = method.getName();
+            if (nombre.equals("equals")) {
+                return proxy == args[0];
+            }
+            if (nombre.equals("hashCode")) {
+                return System.identityHashCode(proxy);
+            }
+            if (nombre.startsWith("execute")) {
+                return ejecutar(method, args);
+            }
+            if (nombre.startsWith("set") && args != null && args.length >= 2 && args[0] instanceof Integer indice) {
+                registrarParametro(indice, nombre, args[1]);
+            } else if (nombre.equals("clearParameters")) {
+                tiposParametros.clear();
+            } else if (nombre.equals("addBatch")) {
+                lotes++;
+            } else if (nombre.equals("clearBatch")) {
+                lotes = 0;
+            }
+            return invocar(destino, method, args);
+        }
+
+        private Object ejecutar(Method method, Object[] args) throws Throwable {
+            EventoConsultaLenta evento = new EventoConsultaLenta();
+            evento.begin();
+            long inicio = System.nanoTime();
+            try {
+                return invocar(destino, method, args);
+            } finally {
+                long duracion = System.nanoTime() - inicio;
+                if (duracion >= umbralNanos) {
+                    String sentencia = args != null && args.length > 0 && args[0] instanceof String s ? s : sql;
+                    registrarConsultaLenta(evento, sentencia, duracion);
+                }
+                if (method.getName().equals("executeBatch")) {
+                    lotes = 0;
+                }
+            }
+        }
+
+        private void registrarConsultaLenta(EventoConsultaLenta evento, String sentencia, long duracion) {
+            String sqlRecortado = sentencia != null && sentencia.length() > longitudMaximaSql
+                    ? sentencia.substring(0, longitudMaximaSql) + "..."
+                    : sentencia;
+            String parametros = tiposParametros.toString();
+            log.warn("Consulta lenta ({} ms, {} lotes): {} parámetros={}",
+                    duracion / 1_000_000, lotes, sqlRecortado, parametros);
+
+            evento.end();
+            if (evento.shouldCommit()) {
+                evento.sql = sqlRecortado;
+                evento.parametros = parametros;
+                evento.lotes = lotes;
+                evento.commit();
+            }
+        }
+
+        private void registrarParametro(int indice, String metodo, Object valor) {
+            String tipo;
+            if (metodo.equals("setNull") || valor == null) {
+                tipo = "NULL";
+            } else if (metodo.equals("setObject")) {
+                tipo = valor.getClass().getSimpleName();
+            } else {
+                tipo = metodo.substring(3);
+            }
+            while (tiposParametros.size() < indice) {
+                tiposParametros.add("?");
+            }
+            tiposParametros.set(indice - 1, tipo);
+        }
+    }
+}
@@ -0,0 +1,36 @@
+package com.multipedidos.clientes.diagnostico;
+
+import com.multipedidos.clientes.config.DiagnosticoProperties;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+
+/**
+ * Envuelve el DataSource de la aplicación en {@link DataSourceDiagnostico} cuando
+ * están activos los eventos JFR o el registro de consultas lentas.
+ */
+@Component
+public class DataSourceDiagnosticoPostProcessor implements BeanPostProcessor {
+
+    // Se resuelve tarde para no adelantar la creación de beans al registrar el post-procesador
+    private final ObjectProvider<DiagnosticoProperties> propiedades;
+
+    public DataSourceDiagnosticoPostProcessor(ObjectProvider<DiagnosticoProperties> propiedades) {
+        this.propiedades = propiedades;
+    }
+
+    @Override
+    public Object postProcessAfterInitialization(Object bean, String beanName) {
+        if (!(bean instanceof DataSource dataSource) || bean instanceof DataSourceDiagnostico) {
+            return bean;
+        }
+        DiagnosticoProperties diagnostico = propiedades.getObject();
+        DiagnosticoProperties.ConsultaLenta consultaLenta = diagnostico.getConsultaLenta();
+        if (!diagnostico.isEventosJfr() && consultaLenta.getUmbral().isZero()) {
+            return bean;
+        }
+        return new DataSourceDiagnostico(dataSource, consultaLenta.getUmbral(), consultaLenta.getLongitudMaximaSql());
+    }
+}
@@ -0,0 +1,28 @@
+package com.multipedidos.clientes.diagnostico;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Evento JFR de una sentencia SQL que superó el umbral de consulta lenta.
+ */
+@Name("com.multipedidos.ConsultaLenta")
+@Label("Consulta lenta")
+@Category({"MultiPedidos", "Base de datos"})
+@StackTrace(false)
+public class EventoConsultaLenta extends Event {
+
+    @Label("SQL")
+    public String sql;
+
+    @Label("Parámetros")
+    @Description("Tipos de los parámetros enlazados, sin sus valores")
+    public String parametros;
+
+    @Label("Lotes")
+    public int lotes;
+}
@@ -0,0 +1,23 @@
+package com.multipedidos.clientes.diagnostico;
+
+import jdk.jfr.Category;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Evento JFR de la ejecución de un método de controlador, sin la serialización de la respuesta.
+ */
+@Name("com.multipedidos.Controlador")
+@Label("Controlador")
+@Category({"MultiPedidos", "HTTP"})
+@StackTrace(false)
+public class EventoControlador extends Event {
+
+    @Label("Clase")
+    public String clase;
+
+    @Label("Método")
+    public String metodo;
+}
@@ -0,0 +1,17 @@
+package com.multipedidos.clientes.diagnostico;
+
+import jdk.jfr.Category;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Evento JFR de la espera para obtener una conexión del pool.
+ */
+@Name("com.multipedidos.ObtenerConexion")
+@Label("Obtener conexión")
+@Category({"MultiPedidos", "Base de datos"})
+@StackTrace(false)
+public class EventoObtenerConexion extends Event {
+}
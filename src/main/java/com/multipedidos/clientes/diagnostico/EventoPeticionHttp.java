@@ -0,0 +1,26 @@
+package com.multipedidos.clientes.diagnostico;
+
+import jdk.jfr.Category;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Evento JFR de una petición HTTP completa, incluida la serialización de la respuesta.
+ */
+@Name("com.multipedidos.PeticionHttp")
+@Label("Petición HTTP")
+@Category({"MultiPedidos", "HTTP"})
+@StackTrace(false)
+public class EventoPeticionHttp extends Event {
+
+    @Label("Método")
+    public String metodo;
+
+    @Label("URI")
+    public String uri;
+
+    @Label("Estado")
+    public int estado;
+}
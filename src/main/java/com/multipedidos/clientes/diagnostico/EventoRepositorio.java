@@ -0,0 +1,23 @@
+package com.multipedidos.clientes.diagnostico;
+
+import jdk.jfr.Category;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Evento JFR de una llamada a un repositorio de Spring Data.
+ */
+@Name("com.multipedidos.Repositorio")
+@Label("Repositorio")
+@Category({"MultiPedidos", "Base de datos"})
+@StackTrace(false)
+public class EventoRepositorio extends Event {
+
+    @Label("Repositorio")
+    public String repositorio;
+
+    @Label("Método")
+    public String metodo;
+}
@@ -0,0 +1,26 @@
+package com.multipedidos.clientes.diagnostico;
+
+import jdk.jfr.Category;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Evento JFR de la ejecución de un método de servicio, incluido el commit de su transacción.
+ */
+@Name("com.multipedidos.Servicio")
+@Label("Servicio")
+@Category({"MultiPedidos", "Servicio"})
+@StackTrace(false)
+public class EventoServicio extends Event {
+
+    @Label("Clase")
+    public String clase;
+
+    @Label("Método")
+    public String metodo;
+
+    @Label("Error")
+    public String error;
+}
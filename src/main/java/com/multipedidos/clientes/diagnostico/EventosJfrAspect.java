@@ -0,0 +1,81 @@
+package com.multipedidos.clientes.diagnostico;
+
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.aop.framework.AopProxyUtils;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+/**
+ * Emite eventos JFR alrededor de controladores, servicios de clientes y pedidos
+ * y repositorios.
+ *
+ * Es el aspecto más externo: se ejecuta antes que el enrutado por shard y que el
+ * advice transaccional, de modo que el evento de un servicio incluye el flush y
+ * commit de Hibernate. Sin una grabación activa
+ * {@code shouldCommit()} es falso y el coste se reduce a dos lecturas de reloj.
+ */
+@Aspect
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+@ConditionalOnProperty(name = "multipedidos.diagnostico.eventos-jfr", havingValue = "true")
+public class EventosJfrAspect {
+
+    @Around("within(com.multipedidos.clientes.controller..*) && @within(org.springframework.web.bind.annotation.RestController)")
+    public Object controlador(ProceedingJoinPoint jp) throws Throwable {
+        EventoControlador evento = new EventoControlador();
+        evento.begin();
+        try {
+            return jp.proceed();
+        } finally {
+            evento.end();
+            if (evento.shouldCommit()) {
+                evento.clase = jp.getSignature().getDeclaringType().getSimpleName();
+                evento.metodo = jp.getSignature().getName();
+                evento.commit();
+            }
+        }
+    }
+
+    @Around("execution(public * com.multipedidos.clientes.service.ClienteService.*(..))"
+            + " || execution(public * com.multipedidos.clientes.service.PedidoService.*(..))")
+    public Object servicio(ProceedingJoinPoint jp) throws Throwable {
+        EventoServicio evento = new EventoServicio();
+        evento.begin();
+        Throwable error = null;
+        try {
+            return jp.proceed();
+        } catch (Throwable ex) {
+            error = ex;
+            throw ex;
+        } finally {
+            evento.end();
+            if (evento.shouldCommit()) {
+                evento.clase = jp.getSignature().getDeclaringType().getSimpleName();
+                evento.metodo = jp.getSignature().getName();
+                evento.error = error != null ? error.getClass().getSimpleName() : null;
+                evento.commit();
+            }
+        }
+    }
+
+    @Around("execution(* com.multipedidos.clientes.repository.*Repository+.*(..))")
+    public Object repositorio(ProceedingJoinPoint jp) throws Throwable {
+        EventoRepositorio evento = new EventoRepositorio();
+        evento.begin();
+        try {
+            return jp.proceed();
+        } finally {
+            evento.end();
+            if (evento.shouldCommit()) {
+                // El tipo declarante de save/findById es JpaRepository; el proxy expone la interfaz propia
+                evento.repositorio = AopProxyUtils.proxiedUserInterfaces(jp.getThis())[0].getSimpleName();
+                evento.metodo = jp.getSignature().getName();
+                evento.commit();
+            }
+        }
+    }
+}
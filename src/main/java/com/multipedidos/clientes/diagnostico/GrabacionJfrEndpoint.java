@@ -0,0 +1,102 @@
+package com.multipedidos.clientes.diagnostico;
+
+import com.multipedidos.clientes.service.GrabacionJfrService;
+import com.multipedidos.common.exceptions.DatosInvalidosException;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.actuate.endpoint.annotation.DeleteOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.WriteOperation;
+import org.springframework.boot.actuate.endpoint.web.WebEndpointResponse;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Component;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Map;
+
+/**
+ * Endpoint de actuator {@code jfr} para grabaciones JFR bajo demanda.
+ *
+ * No se publica en el puerto de la aplicación: solo el perfil {@code gestion} lo incluye
+ * en la exposición, y ese perfil sirve el actuator en un puerto ligado a la red interna.
+ * Requiere además {@code multipedidos.diagnostico.grabacion.habilitada=true}.
+ */
+@Component
+@Endpoint(id = "jfr")
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "multipedidos.diagnostico.grabacion.habilitada", havingValue = "true")
+public class GrabacionJfrEndpoint {
+
+    private static final long SEGUNDOS_POR_DEFECTO = 60;
+
+    private final GrabacionJfrService grabacionJfrService;
+
+    /**
+     * Inicia una grabación; 200 con la duración, 400 si la duración no es válida
+     * o ya hay grabaciones en curso.
+     */
+    @WriteOperation
+    public WebEndpointResponse<Map<String, String>> iniciar(@Nullable Long segundos) {
+        try {
+            Duration duracion = grabacionJfrService.iniciar(
+                    Duration.ofSeconds(segundos != null ? segundos : SEGUNDOS_POR_DEFECTO));
+            return new WebEndpointResponse<>(Map.of("duracion", duracion.toString()), WebEndpointResponse.STATUS_OK);
+        } catch (DatosInvalidosException ex) {
+            return new WebEndpointResponse<>(Map.of("error", ex.getMessage()), WebEndpointResponse.STATUS_BAD_REQUEST);
+        }
+    }
+
+    /**
+     * Vuelca la grabación actual en formato .jfr, esté en curso o terminada.
+     * El fichero temporal se borra al terminar de enviarlo.
+     */
+    @ReadOperation(produces = "application/octet-stream")
+    public WebEndpointResponse<Resource> volcar() throws IOException {
+        try {
+            return new WebEndpointResponse<>(new FicheroTemporal(grabacionJfrService.volcar()));
+        } catch (DatosInvalidosException ex) {
+            return new WebEndpointResponse<>(WebEndpointResponse.STATUS_BAD_REQUEST);
+        }
+    }
+
+    /**
+     * Detiene y descarta la grabación actual.
+     */
+    @DeleteOperation
+    public WebEndpointResponse<Void> cerrar() {
+        grabacionJfrService.cerrar();
+        return new WebEndpointResponse<>(WebEndpointResponse.STATUS_NO_CONTENT);
+    }
+
+    private static final class FicheroTemporal extends FileSystemResource {
+
+        private final Path fichero;
+
+        FicheroTemporal(Path fichero) {
+            super(fichero);
+            this.fichero = fichero;
+        }
+
+        @Override
+        public InputStream getInputStream() throws IOException {
+            return new FilterInputStream(super.getInputStream()) {
+                @Override
+                public void close() throws IOException {
+                    try {
+                        super.close();
+                    } finally {
+                        Files.deleteIfExists(fichero);
+                    }
+                }
+            };
+        }
+    }
+}
@@ -9,7 +9,7 @@ import lombok.NoArgsConstructor;
  * DTO para salida de datos de Cliente.
  */
 @Data
-@Builder
+@Builder(toBuilder = true)
 @NoArgsConstructor
 @AllArgsConstructor
 public class ClienteDTO {
@@ -0,0 +1,23 @@
+package com.multipedidos.clientes.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * DTO para salida de las estadísticas de pedidos de un cliente.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class EstadisticasClienteDTO {
+    private Long clienteId;
+    private long cantidadPedidos;
+    private BigDecimal totalGastado;
+    private LocalDateTime fechaUltimoPedido;
+}
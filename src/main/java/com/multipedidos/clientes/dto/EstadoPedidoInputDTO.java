@@ -0,0 +1,21 @@
+package com.multipedidos.clientes.dto;
+
+import com.multipedidos.clientes.model.Pedido;
+import jakarta.validation.constraints.NotNull;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * DTO para entrada de un cambio de estado de Pedido.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class EstadoPedidoInputDTO {
+
+    @NotNull(message = "El estado es obligatorio")
+    private Pedido.EstadoPedido estado;
+}
@@ -0,0 +1,21 @@
+package com.multipedidos.clientes.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * DTO para consultas de varios recursos por ID.
+ * Los encontrados respetan el orden de los IDs solicitados.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class LoteDTO<T> {
+    private List<T> encontrados;
+    private List<Long> noEncontrados;
+}
@@ -0,0 +1,23 @@
+package com.multipedidos.clientes.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * DTO para resultados paginados por clave.
+ * {@code siguiente} es el cursor de la página siguiente, o null si no la hay.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class PaginaDTO<T> {
+    private List<T> contenido;
+    private int tamano;
+    private boolean haySiguiente;
+    private String siguiente;
+}
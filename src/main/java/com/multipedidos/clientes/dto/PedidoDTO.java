@@ -1,5 +1,6 @@
 package com.multipedidos.clientes.dto;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
@@ -10,9 +11,11 @@ import java.util.List;
 
 /**
  * DTO para salida de datos de Pedido.
+ * Los campos no solicitados con {@code fields=} se omiten de la respuesta.
  */
 @Data
-@Builder
+@JsonInclude(JsonInclude.Include.NON_NULL)
+@Builder(toBuilder = true)
 @NoArgsConstructor
 @AllArgsConstructor
 public class PedidoDTO {
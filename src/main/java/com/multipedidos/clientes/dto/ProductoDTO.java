@@ -13,7 +13,7 @@ import java.math.BigDecimal;
  * DTO para Producto dentro de un Pedido.
  */
 @Data
-@Builder
+@Builder(toBuilder = true)
 @NoArgsConstructor
 @AllArgsConstructor
 public class ProductoDTO {
@@ -0,0 +1,37 @@
+package com.multipedidos.clientes.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * DTO con el resultado de una importación masiva de clientes.
+ * El detalle de filas rechazadas se limita para mantener acotada la memoria.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ResultadoImportacionDTO {
+    private long filasProcesadas;
+    private long importados;
+    /**
+     * Total de filas rechazadas, aunque el detalle de {@code rechazos} esté truncado.
+     */
+    private long rechazados;
+    private List<FilaRechazadaDTO> rechazos;
+    private boolean rechazosTruncados;
+
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class FilaRechazadaDTO {
+        private long linea;
+        private String correo;
+        private String motivo;
+    }
+}
@@ -0,0 +1,28 @@
+package com.multipedidos.clientes.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.UUID;
+
+/**
+ * DTO para el seguimiento de una solicitud de creación asíncrona de pedido.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class SolicitudPedidoDTO {
+    private UUID id;
+    private EstadoSolicitud estado;
+    private Long pedidoId;
+    private String mensaje;
+
+    public enum EstadoSolicitud {
+        EN_COLA,
+        COMPLETADO,
+        FALLIDO
+    }
+}
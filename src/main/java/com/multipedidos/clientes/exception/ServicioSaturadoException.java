@@ -0,0 +1,18 @@
+package com.multipedidos.clientes.exception;
+
+import lombok.Getter;
+
+/**
+ * Excepción lanzada cuando el servicio no puede aceptar más trabajo
+ * temporalmente (por ejemplo, la cola de pedidos asíncronos está llena).
+ */
+@Getter
+public class ServicioSaturadoException extends RuntimeException {
+
+    private final long reintentarEnSegundos;
+
+    public ServicioSaturadoException(String mensaje, long reintentarEnSegundos) {
+        super(mensaje);
+        this.reintentarEnSegundos = reintentarEnSegundos;
+    }
+}
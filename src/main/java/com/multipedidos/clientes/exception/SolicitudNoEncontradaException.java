@@ -0,0 +1,14 @@
+package com.multipedidos.clientes.exception;
+
+import java.util.UUID;
+
+/**
+ * Excepción lanzada cuando una solicitud de pedido asíncrono no existe,
+ * ya expiró o fue aceptada por otra instancia.
+ */
+public class SolicitudNoEncontradaException extends RuntimeException {
+
+    public SolicitudNoEncontradaException(UUID id) {
+        super("Solicitud no encontrada con ID: " + id);
+    }
+}
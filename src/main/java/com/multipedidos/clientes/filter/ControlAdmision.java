@@ -0,0 +1,121 @@
+package com.multipedidos.clientes.filter;
+
+import com.multipedidos.clientes.config.LimiteTasaProperties;
+import com.multipedidos.clientes.sharding.DataSourceEnrutado;
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.HikariPoolMXBean;
+import org.springframework.boot.jdbc.DataSourceUnwrapper;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Límite adaptativo de peticiones concurrentes (AIMD).
+ *
+ * Cuando hay hilos esperando conexión en el pool de HikariCP el límite se
+ * reduce un 10%, como mucho una vez por {@code ventana-reduccion}: todas las
+ * peticiones que terminan durante la misma congestión ven la misma señal y no
+ * deben contarla varias veces. Mientras el pool está holgado el límite vuelve
+ * a crecer de uno en uno hasta la concurrencia máxima configurada.
+ */
+class ControlAdmision {
+
+    private final LimiteTasaProperties.Admision config;
+    private final DataSource dataSource;
+    private final AtomicInteger enCurso = new AtomicInteger();
+    private final AtomicInteger limite;
+    private final long ventanaReduccionNanos;
+    private final AtomicLong ultimaReduccion;
+    private volatile List<HikariPoolMXBean> pools;
+
+    ControlAdmision(LimiteTasaProperties.Admision config, DataSource dataSource) {
+        this(config, dataSource, System.nanoTime());
+    }
+
+    ControlAdmision(LimiteTasaProperties.Admision config, DataSource dataSource, long ahora) {
+        this.config = config;
+        this.dataSource = dataSource;
+        this.limite = new AtomicInteger(config.getConcurrenciaMaxima());
+        this.ventanaReduccionNanos = config.getVentanaReduccion().toNanos();
+        // La primera señal de congestión reduce sin esperar a que pase una ventana
+        this.ultimaReduccion = new AtomicLong(ahora - ventanaReduccionNanos);
+    }
+
+    boolean intentarEntrar() {
+        while (true) {
+            int actual = enCurso.get();
+            if (actual >= limite.get()) {
+                return false;
+            }
+            if (enCurso.compareAndSet(actual, actual + 1)) {
+                return true;
+            }
+        }
+    }
+
+    void salir() {
+        enCurso.decrementAndGet();
+        List<HikariPoolMXBean> mxBeans = obtenerPools();
+        if (mxBeans.isEmpty()) {
+            return;
+        }
+        // Basta con que un shard esté saturado para frenar: las peticiones no eligen shard de antemano
+        int esperando = 0;
+        for (HikariPoolMXBean mxBean : mxBeans) {
+            esperando = Math.max(esperando, mxBean.getThreadsAwaitingConnection());
+        }
+        ajustarLimite(esperando, System.nanoTime());
+    }
+
+    int limiteActual() {
+        return limite.get();
+    }
+
+    /**
+     * Ajusta el límite con los hilos que esperan conexión en el instante dado.
+     */
+    void ajustarLimite(int esperando, long ahora) {
+        int actual = limite.get();
+        int nuevo;
+        if (esperando >= config.getUmbralEsperaPool()) {
+            long ultima = ultimaReduccion.get();
+            if (ahora - ultima < ventanaReduccionNanos || !ultimaReduccion.compareAndSet(ultima, ahora)) {
+                return;
+            }
+            nuevo = Math.max(config.getConcurrenciaMinima(), actual - Math.max(1, actual / 10));
+        } else {
+            nuevo = Math.min(config.getConcurrenciaMaxima(), actual + 1);
+        }
+        if (nuevo != actual) {
+            limite.compareAndSet(actual, nuevo);
+        }
+    }
+
+    /**
+     * Pools de HikariCP: uno sin fragmentación, uno por shard con {@link DataSourceEnrutado}.
+     */
+    private List<HikariPoolMXBean> obtenerPools() {
+        List<HikariPoolMXBean> mxBeans = pools;
+        if (mxBeans == null) {
+            DataSourceEnrutado enrutado = DataSourceUnwrapper.unwrap(dataSource, DataSourceEnrutado.class);
+            List<DataSource> dataSources = enrutado != null
+                    ? List.copyOf(enrutado.getDataSourcesShards())
+                    : List.of(dataSource);
+            List<HikariPoolMXBean> encontrados = new ArrayList<>();
+            for (DataSource ds : dataSources) {
+                HikariDataSource hikari = DataSourceUnwrapper.unwrap(ds, HikariDataSource.class);
+                if (hikari == null || hikari.getHikariPoolMXBean() == null) {
+                    // El pool aún no se ha iniciado; se reintenta en la próxima petición
+                    return List.of();
+                }
+                encontrados.add(hikari.getHikariPoolMXBean());
+            }
+            mxBeans = encontrados;
+            pools = mxBeans;
+        }
+        return mxBeans;
+    }
+}
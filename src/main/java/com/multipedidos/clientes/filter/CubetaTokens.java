@@ -0,0 +1,50 @@
+package com.multipedidos.clientes.filter;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Cubeta de tokens sin bloqueos basada en GCRA (Generic Cell Rate Algorithm).
+ *
+ * Todo el estado es un único instante teórico de llegada que se actualiza con
+ * CAS, lo que equivale a una cubeta de {@code capacidad} tokens que se recarga
+ * a {@code recargaPorSegundo}.
+ */
+class CubetaTokens {
+
+    private final long intervaloNanos;
+    private final long toleranciaNanos;
+    private final AtomicLong llegadaTeorica;
+
+    CubetaTokens(int capacidad, double recargaPorSegundo, long ahora) {
+        this.intervaloNanos = Math.max(1L, (long) (TimeUnit.SECONDS.toNanos(1) / recargaPorSegundo));
+        this.toleranciaNanos = intervaloNanos * Math.max(0, capacidad - 1);
+        this.llegadaTeorica = new AtomicLong(ahora);
+    }
+
+    /**
+     * Intenta consumir un token.
+     *
+     * @return 0 si la petición se admite, o los nanosegundos hasta que haya un token disponible
+     */
+    long intentarConsumir(long ahora) {
+        while (true) {
+            long actual = llegadaTeorica.get();
+            long base = Math.max(actual, ahora);
+            long espera = base - ahora - toleranciaNanos;
+            if (espera > 0) {
+                return espera;
+            }
+            if (llegadaTeorica.compareAndSet(actual, base + intervaloNanos)) {
+                return 0;
+            }
+        }
+    }
+
+    /**
+     * Indica si la cubeta está llena, es decir, si puede descartarse sin perder estado.
+     */
+    boolean estaLlena(long ahora) {
+        return llegadaTeorica.get() <= ahora;
+    }
+}
@@ -0,0 +1,44 @@
+package com.multipedidos.clientes.filter;
+
+import com.multipedidos.clientes.diagnostico.EventoPeticionHttp;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+
+/**
+ * Emite un evento JFR por petición HTTP.
+ *
+ * Abarca toda la cadena, incluida la serialización JSON de la respuesta; la
+ * diferencia con el evento del controlador es el tiempo fuera del handler.
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE + 1)
+@ConditionalOnProperty(name = "multipedidos.diagnostico.eventos-jfr", havingValue = "true")
+public class EventosJfrFilter extends OncePerRequestFilter {
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response,
+                                    FilterChain filterChain) throws ServletException, IOException {
+        EventoPeticionHttp evento = new EventoPeticionHttp();
+        evento.begin();
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            evento.end();
+            if (evento.shouldCommit()) {
+                evento.metodo = request.getMethod();
+                evento.uri = request.getRequestURI();
+                evento.estado = response.getStatus();
+                evento.commit();
+            }
+        }
+    }
+}
@@ -0,0 +1,176 @@
+package com.multipedidos.clientes.filter;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.multipedidos.clientes.config.GlobalExceptionHandler.ErrorResponse;
+import com.multipedidos.clientes.config.LimiteTasaProperties;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Filtro de limitación de tasa por cliente y endpoint, con control de admisión
+ * según la presión del pool de conexiones.
+ *
+ * El cliente se identifica por su clave de API ({@code multipedidos.limite-tasa.cabecera-cliente})
+ * y, si no la envía, por su dirección. Con {@code server.forward-headers-strategy: native}
+ * Tomcat toma esa dirección de {@code X-Forwarded-For} cuando la petición llega desde un
+ * proxy interno, así que detrás del balanceador no se comparte la dirección del proxy.
+ *
+ * Las peticiones que superan su cubeta reciben 429 y las descartadas por el
+ * control de admisión 503; ambas incluyen la cabecera {@code Retry-After}.
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE + 10)
+@Slf4j
+public class LimiteTasaFilter extends OncePerRequestFilter {
+
+    private static final String PREFIJO_API = "/api/";
+
+    private final LimiteTasaProperties properties;
+    private final ObjectMapper objectMapper;
+    private final ControlAdmision controlAdmision;
+    private final ConcurrentHashMap<String, CubetaTokens> cubetas = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<String, CubetaTokens> cubetasDesbordamiento = new ConcurrentHashMap<>();
+    private final Counter rechazosTasa;
+    private final Counter rechazosAdmision;
+
+    public LimiteTasaFilter(LimiteTasaProperties properties, ObjectMapper objectMapper,
+                            DataSource dataSource, MeterRegistry registry) {
+        this.properties = properties;
+        this.objectMapper = objectMapper;
+        this.controlAdmision = new ControlAdmision(properties.getAdmision(), dataSource);
+        this.rechazosTasa = Counter.builder("multipedidos.limite-tasa.rechazos")
+                .tag("motivo", "tasa")
+                .register(registry);
+        this.rechazosAdmision = Counter.builder("multipedidos.limite-tasa.rechazos")
+                .tag("motivo", "admision")
+                .register(registry);
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !properties.isHabilitado()
+                || "OPTIONS".equals(request.getMethod())
+                || !request.getRequestURI().startsWith(PREFIJO_API);
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response,
+                                    FilterChain filterChain) throws ServletException, IOException {
+        String endpoint = resolverEndpoint(request);
+        long ahora = System.nanoTime();
+        long espera = obtenerCubeta(endpoint, resolverCliente(request), ahora).intentarConsumir(ahora);
+        if (espera > 0) {
+            rechazosTasa.increment();
+            long segundos = Math.max(1, TimeUnit.NANOSECONDS.toSeconds(espera + TimeUnit.SECONDS.toNanos(1) - 1));
+            rechazar(response, HttpStatus.TOO_MANY_REQUESTS, segundos,
+                    "Se ha superado el límite de peticiones para " + endpoint);
+            return;
+        }
+
+        if (!properties.getAdmision().isHabilitado()) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+        if (!controlAdmision.intentarEntrar()) {
+            rechazosAdmision.increment();
+            log.warn("Petición descartada por control de admisión (límite actual: {})", controlAdmision.limiteActual());
+            rechazar(response, HttpStatus.SERVICE_UNAVAILABLE, 1,
+                    "El servicio está saturado, intente de nuevo más tarde");
+            return;
+        }
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            controlAdmision.salir();
+        }
+    }
+
+    /**
+     * Agrupa la URI por recurso: "GET /api/pedidos/cliente/5" se cuenta como "GET /api/pedidos".
+     */
+    private String resolverEndpoint(HttpServletRequest request) {
+        String uri = request.getRequestURI();
+        int fin = uri.indexOf('/', PREFIJO_API.length());
+        String recurso = fin < 0 ? uri : uri.substring(0, fin);
+        return request.getMethod() + " " + recurso;
+    }
+
+    /**
+     * Identifica al cliente por su clave de API o, si no la hay, por su dirección remota.
+     * Los prefijos evitan que una clave coincida con una dirección.
+     */
+    private String resolverCliente(HttpServletRequest request) {
+        String cabecera = properties.getCabeceraCliente();
+        String clave = cabecera == null || cabecera.isEmpty() ? null : request.getHeader(cabecera);
+        return clave != null && !clave.isBlank() ? "k:" + clave.trim() : "ip:" + request.getRemoteAddr();
+    }
+
+    /**
+     * Devuelve la cubeta del cliente en el endpoint. Si el mapa está lleno, los
+     * clientes nuevos comparten la cubeta de desbordamiento del endpoint hasta la
+     * siguiente purga, de modo que la petición nunca recorre el mapa.
+     */
+    private CubetaTokens obtenerCubeta(String endpoint, String cliente, long ahora) {
+        String clave = endpoint + '|' + cliente;
+        CubetaTokens cubeta = cubetas.get(clave);
+        if (cubeta != null) {
+            return cubeta;
+        }
+        if (cubetas.size() >= properties.getMaxCubetas()) {
+            return cubetasDesbordamiento.computeIfAbsent(endpoint, k -> nuevaCubeta(endpoint, ahora));
+        }
+        return cubetas.computeIfAbsent(clave, k -> nuevaCubeta(endpoint, ahora));
+    }
+
+    private CubetaTokens nuevaCubeta(String endpoint, long ahora) {
+        LimiteTasaProperties.Limite limite = properties.getEndpoints()
+                .getOrDefault(endpoint, properties.getPorDefecto());
+        return new CubetaTokens(limite.getCapacidad(), limite.getRecargaPorSegundo(), ahora);
+    }
+
+    /**
+     * Descarta en segundo plano las cubetas llenas, que pueden recrearse sin perder estado.
+     */
+    @Scheduled(fixedDelayString = "${multipedidos.limite-tasa.intervalo-purga:30s}")
+    public void purgarCubetas() {
+        long ahora = System.nanoTime();
+        int antes = cubetas.size();
+        cubetas.values().removeIf(c -> c.estaLlena(ahora));
+        cubetasDesbordamiento.values().removeIf(c -> c.estaLlena(ahora));
+        log.debug("Purgadas {} cubetas de limitación de tasa", antes - cubetas.size());
+    }
+
+    private void rechazar(HttpServletResponse response, HttpStatus status, long retryAfterSegundos,
+                          String mensaje) throws IOException {
+        ErrorResponse error = ErrorResponse.builder()
+                .timestamp(LocalDateTime.now())
+                .status(status.value())
+                .error(status.getReasonPhrase())
+                .message(mensaje)
+                .build();
+        response.setStatus(status.value());
+        response.setHeader(HttpHeaders.RETRY_AFTER, String.valueOf(retryAfterSegundos));
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        response.setCharacterEncoding("UTF-8");
+        objectMapper.writeValue(response.getOutputStream(), error);
+    }
+}
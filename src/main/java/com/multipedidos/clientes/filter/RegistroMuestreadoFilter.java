@@ -0,0 +1,50 @@
+package com.multipedidos.clientes.filter;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Registro muestreado de peticiones HTTP.
+ *
+ * Solo una fracción de las peticiones ({@code multipedidos.registro-peticiones.tasa-muestreo})
+ * se registra a nivel INFO con método, URI, estado y duración; el resto no
+ * paga ningún coste de logging.
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+@Slf4j
+public class RegistroMuestreadoFilter extends OncePerRequestFilter {
+
+    @Value("${multipedidos.registro-peticiones.tasa-muestreo:0.0}")
+    private double tasaMuestreo;
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return tasaMuestreo <= 0.0 || !log.isInfoEnabled()
+                || (tasaMuestreo < 1.0 && ThreadLocalRandom.current().nextDouble() >= tasaMuestreo);
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response,
+                                    FilterChain filterChain) throws ServletException, IOException {
+        long inicio = System.nanoTime();
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            log.info("{} {} -> {} ({} ms)", request.getMethod(), request.getRequestURI(), response.getStatus(),
+                    TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - inicio));
+        }
+    }
+}
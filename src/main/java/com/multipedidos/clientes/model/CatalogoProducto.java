@@ -0,0 +1,29 @@
+package com.multipedidos.clientes.model;
+
+import jakarta.persistence.*;
+import jakarta.validation.constraints.NotBlank;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Entidad del catálogo de productos. Cada nombre de producto se almacena una
+ * sola vez y las líneas de pedido lo referencian.
+ */
+@Entity
+@Table(name = "catalogo_productos")
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class CatalogoProducto {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @NotBlank(message = "El nombre del producto es obligatorio")
+    @Column(nullable = false, unique = true)
+    private String nombre;
+}
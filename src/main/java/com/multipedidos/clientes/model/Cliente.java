@@ -14,7 +14,10 @@ import java.time.LocalDateTime;
  * Entidad Cliente para almacenar información de clientes.
  */
 @Entity
-@Table(name = "clientes")
+@Table(name = "clientes", indexes = {
+        @Index(name = "idx_clientes_nombre", columnList = "nombre"),
+        @Index(name = "idx_clientes_correo", columnList = "correo", unique = true)
+})
 @Data
 @Builder
 @NoArgsConstructor
@@ -31,7 +34,7 @@ public class Cliente {
 
     @Email(message = "El correo debe ser válido")
     @NotBlank(message = "El correo es obligatorio")
-    @Column(nullable = false, unique = true)
+    @Column(nullable = false)
     private String correo;
 
     @Column(name = "fecha_registro", updatable = false)
@@ -0,0 +1,39 @@
+package com.multipedidos.clientes.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * Entidad con las estadísticas acumuladas de pedidos de un cliente.
+ * Se mantiene al crear y cancelar pedidos para evitar recorrer sus pedidos.
+ */
+@Entity
+@Table(name = "estadisticas_clientes")
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class EstadisticasCliente {
+
+    @Id
+    @Column(name = "cliente_id")
+    private Long clienteId;
+
+    @Column(name = "cantidad_pedidos", nullable = false)
+    private long cantidadPedidos;
+
+    /**
+     * Suma de los totales de los pedidos no cancelados.
+     */
+    @Column(name = "total_gastado", nullable = false, precision = 14, scale = 2)
+    private BigDecimal totalGastado;
+
+    @Column(name = "fecha_ultimo_pedido")
+    private LocalDateTime fechaUltimoPedido;
+}
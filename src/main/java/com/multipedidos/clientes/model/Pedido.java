@@ -16,7 +16,10 @@ import java.util.List;
  * Entidad Pedido para almacenar información de pedidos.
  */
 @Entity
-@Table(name = "pedidos")
+@Table(name = "pedidos", indexes = {
+        @Index(name = "idx_pedidos_cliente", columnList = "cliente_id"),
+        @Index(name = "idx_pedidos_estado_fecha", columnList = "estado, fecha_pedido")
+})
 @Data
 @Builder
 @NoArgsConstructor
@@ -0,0 +1,51 @@
+package com.multipedidos.clientes.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Entidad para pedidos finalizados (COMPLETADO o CANCELADO) movidos fuera de
+ * la tabla de pedidos activos. Conserva el ID original del pedido.
+ */
+@Entity
+@Table(name = "pedidos_archivados", indexes = {
+        @Index(name = "idx_pedidos_archivados_cliente", columnList = "cliente_id")
+})
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class PedidoArchivado {
+
+    @Id
+    private Long id;
+
+    @Column(name = "cliente_id", nullable = false)
+    private Long clienteId;
+
+    @OneToMany(fetch = FetchType.EAGER)
+    @JoinColumn(name = "pedido_id")
+    @Builder.Default
+    private List<ProductoArchivado> productos = new ArrayList<>();
+
+    @Column(nullable = false, precision = 10, scale = 2)
+    private BigDecimal total;
+
+    @Column(name = "fecha_pedido")
+    private LocalDateTime fechaPedido;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private Pedido.EstadoPedido estado;
+
+    @Column(name = "fecha_archivado")
+    private LocalDateTime fechaArchivado;
+}
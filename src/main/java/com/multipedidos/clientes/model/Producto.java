@@ -2,16 +2,18 @@ package com.multipedidos.clientes.model;
 
 import jakarta.persistence.*;
 import jakarta.validation.constraints.DecimalMin;
-import jakarta.validation.constraints.NotBlank;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
+import lombok.EqualsAndHashCode;
 import lombok.NoArgsConstructor;
+import lombok.ToString;
 
 import java.math.BigDecimal;
 
 /**
- * Entidad Producto que forma parte de un Pedido.
+ * Entidad Producto que forma parte de un Pedido (línea de pedido).
+ * El nombre vive en el catálogo; la línea guarda el precio del momento del pedido.
  */
 @Entity
 @Table(name = "productos")
@@ -25,12 +27,21 @@ public class Producto {
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
 
-    @NotBlank(message = "El nombre del producto es obligatorio")
-    @Column(nullable = false)
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "catalogo_producto_id")
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
+    private CatalogoProducto catalogo;
+
+    /**
+     * Copia del nombre que se sigue escribiendo durante la transición al catálogo,
+     * para las instancias de la versión anterior. Se deja de mapear en la versión
+     * siguiente, junto con la migración que borra la columna.
+     */
+    @Column(name = "nombre")
     private String nombre;
 
     @DecimalMin(value = "0.0", inclusive = false, message = "El precio debe ser mayor a 0")
     @Column(nullable = false, precision = 10, scale = 2)
     private BigDecimal precio;
 }
-
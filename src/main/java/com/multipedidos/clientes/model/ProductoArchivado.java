@@ -0,0 +1,43 @@
+package com.multipedidos.clientes.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.EqualsAndHashCode;
+import lombok.NoArgsConstructor;
+import lombok.ToString;
+
+import java.math.BigDecimal;
+
+/**
+ * Entidad Producto de un pedido archivado. Conserva el ID original del producto.
+ */
+@Entity
+@Table(name = "productos_archivados")
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProductoArchivado {
+
+    @Id
+    private Long id;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "catalogo_producto_id")
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
+    private CatalogoProducto catalogo;
+
+    /**
+     * Copia del nombre que se sigue escribiendo durante la transición al catálogo,
+     * para las instancias de la versión anterior. Se deja de mapear en la versión
+     * siguiente, junto con la migración que borra la columna.
+     */
+    @Column(name = "nombre")
+    private String nombre;
+
+    @Column(nullable = false, precision = 10, scale = 2)
+    private BigDecimal precio;
+}
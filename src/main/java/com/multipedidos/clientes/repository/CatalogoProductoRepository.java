@@ -0,0 +1,20 @@
+package com.multipedidos.clientes.repository;
+
+import com.multipedidos.clientes.model.CatalogoProducto;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Repositorio para la entidad CatalogoProducto.
+ */
+@Repository
+public interface CatalogoProductoRepository extends JpaRepository<CatalogoProducto, Long> {
+
+    /**
+     * Busca las entradas del catálogo con los nombres dados.
+     */
+    List<CatalogoProducto> findByNombreIn(Collection<String> nombres);
+}
@@ -1,11 +1,16 @@
 package com.multipedidos.clientes.repository;
 
 import com.multipedidos.clientes.model.Cliente;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 /**
@@ -23,6 +28,46 @@ public interface ClienteRepository extends JpaRepository<Cliente, Long> {
      * Verifica si existe un cliente con el correo dado.
      */
     boolean existsByCorreo(String correo);
+
+    /**
+     * Verifica si otro cliente distinto del dado usa el correo.
+     */
+    boolean existsByCorreoAndIdNot(String correo, Long id);
+
+    /**
+     * Inserta un cliente con un ID ya asignado (modo fragmentado, donde el ID decide el shard).
+     */
+    @Modifying
+    @Query(value = "INSERT INTO clientes (id, nombre, correo, fecha_registro) VALUES (:id, :nombre, :correo, :fechaRegistro)",
+            nativeQuery = true)
+    void insertarConId(@Param("id") Long id, @Param("nombre") String nombre, @Param("correo") String correo,
+                       @Param("fechaRegistro") LocalDateTime fechaRegistro);
+
+    /**
+     * Obtiene cuáles de los correos dados ya están registrados.
+     */
+    @Query("SELECT c.correo FROM Cliente c WHERE c.correo IN :correos")
+    List<String> findCorreosExistentes(@Param("correos") Collection<String> correos);
+
+    /**
+     * Busca clientes cuyo nombre coincida con el patrón, a continuación de (nombre, id).
+     * Es un rango de idx_clientes_nombre (en InnoDB el índice secundario incluye el id),
+     * por lo que se lee en orden y sin ordenación adicional.
+     */
+    @Query("SELECT c FROM Cliente c WHERE c.nombre LIKE :patron ESCAPE '!' " +
+            "AND c.nombre >= :nombre AND (c.nombre > :nombre OR c.id > :id) ORDER BY c.nombre, c.id")
+    List<Cliente> buscarPorNombreDesde(@Param("patron") String patron, @Param("nombre") String nombre,
+                                       @Param("id") Long id, Pageable pageable);
+
+    /**
+     * Busca clientes cuyo correo coincida con el patrón y cuyo nombre no, a continuación
+     * del correo dado. Es un rango de idx_clientes_correo; excluir los que ya coinciden
+     * por nombre evita devolverlos dos veces.
+     */
+    @Query("SELECT c FROM Cliente c WHERE c.correo LIKE :patron ESCAPE '!' " +
+            "AND c.nombre NOT LIKE :patron ESCAPE '!' AND c.correo > :correo ORDER BY c.correo")
+    List<Cliente> buscarPorCorreoDesde(@Param("patron") String patron, @Param("correo") String correo,
+                                       Pageable pageable);
     
     /**
      * Cuenta el número de pedidos asociados a un cliente.
@@ -30,5 +75,11 @@ public interface ClienteRepository extends JpaRepository<Cliente, Long> {
      */
     @Query("SELECT COUNT(p) FROM Pedido p WHERE p.clienteId = :clienteId")
     long countPedidosByClienteId(@Param("clienteId") Long clienteId);
+
+    /**
+     * Obtiene los IDs de clientes mayores que el dado, en orden ascendente (paginación por clave).
+     */
+    @Query("SELECT c.id FROM Cliente c WHERE c.id > :desde ORDER BY c.id")
+    List<Long> findIdsDesde(@Param("desde") Long desde, Pageable pageable);
 }
 
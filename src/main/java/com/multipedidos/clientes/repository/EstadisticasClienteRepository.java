@@ -0,0 +1,54 @@
+package com.multipedidos.clientes.repository;
+
+import com.multipedidos.clientes.model.EstadisticasCliente;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Repositorio para la entidad EstadisticasCliente.
+ */
+@Repository
+public interface EstadisticasClienteRepository extends JpaRepository<EstadisticasCliente, Long> {
+
+    /**
+     * Suma pedidos a las estadísticas del cliente con un único upsert atómico: crea
+     * la fila si no existe y, si existe, incrementa sus contadores. No hay ventana
+     * entre comprobar la fila y crearla (sintaxis de MySQL; en H2, modo MySQL).
+     */
+    @Modifying
+    @Query(value = "INSERT INTO estadisticas_clientes (cliente_id, cantidad_pedidos, total_gastado, fecha_ultimo_pedido) " +
+            "VALUES (:clienteId, :cantidad, :total, :fecha) " +
+            "ON DUPLICATE KEY UPDATE cantidad_pedidos = cantidad_pedidos + :cantidad, " +
+            "total_gastado = total_gastado + :total, " +
+            "fecha_ultimo_pedido = CASE WHEN fecha_ultimo_pedido IS NULL OR fecha_ultimo_pedido < :fecha " +
+            "THEN :fecha ELSE fecha_ultimo_pedido END",
+            nativeQuery = true)
+    void registrarPedidos(@Param("clienteId") Long clienteId,
+                          @Param("cantidad") long cantidad,
+                          @Param("total") BigDecimal total,
+                          @Param("fecha") LocalDateTime fecha);
+
+    /**
+     * Resta el total de un pedido cancelado del gasto acumulado del cliente.
+     */
+    @Modifying
+    @Query("UPDATE EstadisticasCliente e SET e.totalGastado = e.totalGastado - :total WHERE e.clienteId = :clienteId")
+    int descontarTotal(@Param("clienteId") Long clienteId, @Param("total") BigDecimal total);
+
+    /**
+     * Obtiene y bloquea las estadísticas de varios clientes para reconciliarlas.
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT e FROM EstadisticasCliente e WHERE e.clienteId IN :clienteIds")
+    List<EstadisticasCliente> findAllParaActualizar(@Param("clienteIds") Collection<Long> clienteIds);
+}
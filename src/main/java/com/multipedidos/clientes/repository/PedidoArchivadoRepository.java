@@ -0,0 +1,57 @@
+package com.multipedidos.clientes.repository;
+
+import com.multipedidos.clientes.model.Pedido;
+import com.multipedidos.clientes.model.PedidoArchivado;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Repositorio para la entidad PedidoArchivado.
+ */
+@Repository
+public interface PedidoArchivadoRepository extends JpaRepository<PedidoArchivado, Long> {
+
+    /**
+     * Busca todos los pedidos archivados de un cliente.
+     */
+    List<PedidoArchivado> findByClienteId(Long clienteId);
+
+    /**
+     * Obtiene los pedidos archivados de un cliente sin cargar sus productos.
+     */
+    List<PedidoResumen> findResumenByClienteId(Long clienteId);
+
+    /**
+     * Copia los pedidos indicados a la tabla de archivo.
+     */
+    @Modifying
+    @Query(value = "INSERT INTO pedidos_archivados (id, cliente_id, total, fecha_pedido, estado, fecha_archivado) " +
+            "SELECT id, cliente_id, total, fecha_pedido, estado, CURRENT_TIMESTAMP FROM pedidos WHERE id IN (:ids)",
+            nativeQuery = true)
+    int copiarPedidos(@Param("ids") Collection<Long> ids);
+
+    /**
+     * Copia los productos de los pedidos indicados a la tabla de archivo.
+     */
+    @Modifying
+    @Query(value = "INSERT INTO productos_archivados (id, pedido_id, catalogo_producto_id, nombre, precio) " +
+            "SELECT id, pedido_id, catalogo_producto_id, nombre, precio FROM productos WHERE pedido_id IN (:ids)",
+            nativeQuery = true)
+    int copiarProductos(@Param("ids") Collection<Long> ids);
+
+    /**
+     * Misma agregación que PedidoRepository.resumirPorClientes, sobre los pedidos archivados.
+     */
+    @Query("SELECT p.clienteId AS clienteId, COUNT(p) AS cantidadPedidos, " +
+            "COALESCE(SUM(CASE WHEN p.estado <> :excluido THEN p.total ELSE 0 END), 0) AS totalGastado, " +
+            "MAX(p.fechaPedido) AS fechaUltimoPedido " +
+            "FROM PedidoArchivado p WHERE p.clienteId IN :clienteIds GROUP BY p.clienteId")
+    List<ResumenPedidosCliente> resumirPorClientes(@Param("clienteIds") Collection<Long> clienteIds,
+                                                   @Param("excluido") Pedido.EstadoPedido excluido);
+}
@@ -1,10 +1,19 @@
 package com.multipedidos.clientes.repository;
 
 import com.multipedidos.clientes.model.Pedido;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 
 /**
  * Repositorio para la entidad Pedido.
@@ -16,10 +25,66 @@ public interface PedidoRepository extends JpaRepository<Pedido, Long> {
      * Busca todos los pedidos de un cliente específico.
      */
     List<Pedido> findByClienteId(Long clienteId);
+
+    /**
+     * Obtiene todos los pedidos sin cargar sus productos.
+     */
+    List<PedidoResumen> findAllProjectedBy();
+
+    /**
+     * Obtiene los pedidos de un cliente sin cargar sus productos.
+     */
+    List<PedidoResumen> findResumenByClienteId(Long clienteId);
     
     /**
      * Busca pedidos por estado.
      */
     List<Pedido> findByEstado(Pedido.EstadoPedido estado);
-}
 
+    /**
+     * Busca un pedido por ID bloqueándolo para actualizar su estado.
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    Optional<Pedido> findConBloqueoById(Long id);
+
+    /**
+     * Busca varios pedidos por ID cargando sus productos en la misma consulta.
+     */
+    @Query("SELECT DISTINCT p FROM Pedido p LEFT JOIN FETCH p.productos WHERE p.id IN :ids")
+    List<Pedido> findAllConProductosByIdIn(@Param("ids") Collection<Long> ids);
+
+    /**
+     * Calcula cantidad de pedidos, gasto (sin pedidos en el estado excluido) y
+     * fecha del último pedido de cada cliente indicado.
+     */
+    @Query("SELECT p.clienteId AS clienteId, COUNT(p) AS cantidadPedidos, " +
+            "COALESCE(SUM(CASE WHEN p.estado <> :excluido THEN p.total ELSE 0 END), 0) AS totalGastado, " +
+            "MAX(p.fechaPedido) AS fechaUltimoPedido " +
+            "FROM Pedido p WHERE p.clienteId IN :clienteIds GROUP BY p.clienteId")
+    List<ResumenPedidosCliente> resumirPorClientes(@Param("clienteIds") Collection<Long> clienteIds,
+                                                   @Param("excluido") Pedido.EstadoPedido excluido);
+
+    /**
+     * Obtiene los IDs de los pedidos más antiguos en el estado dado anteriores a la fecha límite.
+     * Un solo estado y el orden (fecha_pedido, id) recorren idx_pedidos_estado_fecha en orden,
+     * sin ordenación adicional (en InnoDB el índice secundario incluye el id).
+     */
+    @Query("SELECT p.id FROM Pedido p WHERE p.estado = :estado AND p.fechaPedido < :limite ORDER BY p.fechaPedido, p.id")
+    List<Long> findIdsArchivables(@Param("estado") Pedido.EstadoPedido estado,
+                                  @Param("limite") LocalDateTime limite,
+                                  Pageable pageable);
+
+    /**
+     * Elimina los productos de los pedidos indicados.
+     */
+    @Modifying
+    @Query(value = "DELETE FROM productos WHERE pedido_id IN (:ids)", nativeQuery = true)
+    int borrarProductos(@Param("ids") Collection<Long> ids);
+
+    /**
+     * Elimina los pedidos indicados.
+     */
+    @Modifying
+    @Query(value = "DELETE FROM pedidos WHERE id IN (:ids)", nativeQuery = true)
+    int borrarPedidos(@Param("ids") Collection<Long> ids);
+}
@@ -0,0 +1,12 @@
+package com.multipedidos.clientes.repository;
+
+import java.math.BigDecimal;
+
+/**
+ * Proyección de un pedido sin sus productos.
+ */
+public interface PedidoResumen {
+    Long getId();
+    Long getClienteId();
+    BigDecimal getTotal();
+}
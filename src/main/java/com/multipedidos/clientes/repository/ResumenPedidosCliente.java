@@ -0,0 +1,14 @@
+package com.multipedidos.clientes.repository;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * Proyección con los agregados de pedidos de un cliente.
+ */
+public interface ResumenPedidosCliente {
+    Long getClienteId();
+    long getCantidadPedidos();
+    BigDecimal getTotalGastado();
+    LocalDateTime getFechaUltimoPedido();
+}
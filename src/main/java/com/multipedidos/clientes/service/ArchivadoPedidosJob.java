@@ -0,0 +1,86 @@
+package com.multipedidos.clientes.service;
+
+import com.multipedidos.clientes.model.Pedido;
+import com.multipedidos.clientes.sharding.EjecutorShards;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+
+/**
+ * Tarea programada que archiva por lotes los pedidos COMPLETADO/CANCELADO
+ * más antiguos que la antigüedad configurada, shard a shard y estado a estado.
+ * Con varias instancias solo una la ejecuta a la vez (ver {@link BloqueoTareas}).
+ */
+@Component
+@Lazy(false)
+@RequiredArgsConstructor
+@Slf4j
+public class ArchivadoPedidosJob {
+
+    private final ArchivadoPedidosService archivadoPedidosService;
+    private final EjecutorShards ejecutorShards;
+    private final BloqueoTareas bloqueoTareas;
+
+    @Value("${multipedidos.archivado.habilitado:true}")
+    private boolean habilitado;
+
+    @Value("${multipedidos.archivado.antiguedad:90d}")
+    private Duration antiguedad;
+
+    @Value("${multipedidos.archivado.tamano-lote:500}")
+    private int tamanoLote;
+
+    @Value("${multipedidos.archivado.pausa-entre-lotes:100ms}")
+    private Duration pausaEntreLotes;
+
+    @Scheduled(cron = "${multipedidos.archivado.cron:0 0 4 * * *}")
+    public void archivar() {
+        if (!habilitado) {
+            return;
+        }
+        bloqueoTareas.ejecutar("archivado-pedidos", this::archivarPedidos);
+    }
+
+    private void archivarPedidos() {
+        LocalDateTime limite = LocalDateTime.now().minus(antiguedad);
+        log.info("Archivando pedidos finalizados anteriores a {}", limite);
+
+        int total = 0;
+        for (String shard : ejecutorShards.shards()) {
+            total += ejecutorShards.enShard(shard, () -> archivarShard(limite));
+        }
+
+        log.info("Archivado finalizado: {} pedidos movidos al archivo", total);
+    }
+
+    private int archivarShard(LocalDateTime limite) {
+        int total = 0;
+        for (Pedido.EstadoPedido estado : ArchivadoPedidosService.ESTADOS_ARCHIVABLES) {
+            int archivados;
+            do {
+                archivados = archivadoPedidosService.archivarLote(estado, limite, tamanoLote);
+                total += archivados;
+                if (archivados == tamanoLote && !pausar()) {
+                    return total;
+                }
+            } while (archivados == tamanoLote);
+        }
+        return total;
+    }
+
+    private boolean pausar() {
+        try {
+            Thread.sleep(pausaEntreLotes.toMillis());
+            return true;
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+}
@@ -0,0 +1,50 @@
+package com.multipedidos.clientes.service;
+
+import com.multipedidos.clientes.model.Pedido;
+import com.multipedidos.clientes.repository.PedidoArchivadoRepository;
+import com.multipedidos.clientes.repository.PedidoRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Servicio que mueve pedidos finalizados antiguos a las tablas de archivo.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class ArchivadoPedidosService {
+
+    static final List<Pedido.EstadoPedido> ESTADOS_ARCHIVABLES =
+            List.of(Pedido.EstadoPedido.COMPLETADO, Pedido.EstadoPedido.CANCELADO);
+
+    private final PedidoRepository pedidoRepository;
+    private final PedidoArchivadoRepository pedidoArchivadoRepository;
+
+    /**
+     * Archiva como máximo {@code tamanoLote} pedidos en el estado dado anteriores a la fecha
+     * límite, los más antiguos primero, en una transacción corta que solo bloquea las filas del lote.
+     *
+     * @return número de pedidos archivados
+     */
+    @Transactional
+    public int archivarLote(Pedido.EstadoPedido estado, LocalDateTime limite, int tamanoLote) {
+        List<Long> ids = pedidoRepository.findIdsArchivables(estado, limite, PageRequest.of(0, tamanoLote));
+        if (ids.isEmpty()) {
+            return 0;
+        }
+
+        pedidoArchivadoRepository.copiarPedidos(ids);
+        pedidoArchivadoRepository.copiarProductos(ids);
+        pedidoRepository.borrarProductos(ids);
+        pedidoRepository.borrarPedidos(ids);
+
+        log.debug("Archivados {} pedidos {}", ids.size(), estado);
+        return ids.size();
+    }
+}
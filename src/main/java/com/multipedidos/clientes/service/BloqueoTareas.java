@@ -0,0 +1,91 @@
+package com.multipedidos.clientes.service;
+
+import com.multipedidos.clientes.sharding.EjecutorShards;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.UUID;
+import java.util.function.Supplier;
+
+/**
+ * Bloqueo de tareas programadas entre instancias.
+ *
+ * Cada tarea tiene una fila en {@code bloqueos_tareas} (en el primer shard) con la
+ * instancia que la ejecuta y hasta cuándo. Una instancia solo ejecuta la tarea si
+ * crea la fila o si el bloqueo anterior ya venció; al terminar lo libera. Si una
+ * instancia cae a mitad, el bloqueo vence tras {@code multipedidos.tareas.duracion-maxima-bloqueo}.
+ */
+@Component
+@Slf4j
+public class BloqueoTareas {
+
+    static final String TABLA = "bloqueos_tareas";
+
+    private final EjecutorShards ejecutorShards;
+    private final JdbcTemplate jdbcTemplate;
+    private final String instancia = UUID.randomUUID().toString();
+    private volatile boolean tablaCreada;
+
+    @Value("${multipedidos.tareas.duracion-maxima-bloqueo:2h}")
+    private Duration duracionMaxima;
+
+    public BloqueoTareas(EjecutorShards ejecutorShards, JdbcTemplate jdbcTemplate) {
+        this.ejecutorShards = ejecutorShards;
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * Ejecuta la tarea si ninguna otra instancia la está ejecutando.
+     *
+     * @return true si la tarea se ejecutó en esta instancia
+     */
+    public boolean ejecutar(String tarea, Runnable accion) {
+        if (!enPrimerShard(() -> adquirir(tarea))) {
+            log.info("La tarea {} ya se está ejecutando en otra instancia", tarea);
+            return false;
+        }
+        try {
+            accion.run();
+            return true;
+        } finally {
+            enPrimerShard(() -> liberar(tarea));
+        }
+    }
+
+    private boolean adquirir(String tarea) {
+        crearTabla();
+        LocalDateTime ahora = LocalDateTime.now();
+        LocalDateTime hasta = ahora.plus(duracionMaxima);
+        try {
+            jdbcTemplate.update("INSERT INTO " + TABLA + " (nombre, bloqueado_hasta, bloqueado_por) VALUES (?, ?, ?)",
+                    tarea, hasta, instancia);
+            return true;
+        } catch (DuplicateKeyException ex) {
+            // La fila ya existe: solo se toma si el bloqueo anterior venció
+            return jdbcTemplate.update("UPDATE " + TABLA + " SET bloqueado_hasta = ?, bloqueado_por = ? "
+                    + "WHERE nombre = ? AND bloqueado_hasta <= ?", hasta, instancia, tarea, ahora) == 1;
+        }
+    }
+
+    private boolean liberar(String tarea) {
+        return jdbcTemplate.update("UPDATE " + TABLA + " SET bloqueado_hasta = ? WHERE nombre = ? AND bloqueado_por = ?",
+                LocalDateTime.now(), tarea, instancia) == 1;
+    }
+
+    private void crearTabla() {
+        if (!tablaCreada) {
+            jdbcTemplate.execute("CREATE TABLE IF NOT EXISTS " + TABLA + " (nombre VARCHAR(64) NOT NULL PRIMARY KEY, "
+                    + "bloqueado_hasta TIMESTAMP NOT NULL, bloqueado_por VARCHAR(64) NOT NULL)");
+            tablaCreada = true;
+        }
+    }
+
+    private <T> T enPrimerShard(Supplier<T> operacion) {
+        return ejecutorShards.enShard(ejecutorShards.shards().get(0), operacion);
+    }
+}
@@ -0,0 +1,111 @@
+package com.multipedidos.clientes.service;
+
+import com.multipedidos.clientes.repository.ClienteRepository;
+import com.multipedidos.clientes.repository.PedidoRepository;
+import com.multipedidos.clientes.sharding.EjecutorShards;
+import com.zaxxer.hikari.HikariDataSource;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.jdbc.DataSourceUnwrapper;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Calienta el pool de conexiones y las consultas más frecuentes al arrancar.
+ *
+ * Se ejecuta como el último ApplicationRunner, y Spring Boot no publica
+ * {@code ReadinessState.ACCEPTING_TRAFFIC} hasta que terminan todos, así que la
+ * sonda de readiness no pasa mientras dura. En cada shard lanza tantas tareas
+ * concurrentes como conexiones tiene el pool, de modo que se abren todas y cada
+ * una prepara las consultas calientes ({@code existsById}, {@code findByClienteId}...)
+ * en su caché de sentencias. También deja compiladas por el JIT y en la caché de
+ * planes de Hibernate esas rutas antes de la primera petición real.
+ */
+@Component
+@Order(Ordered.LOWEST_PRECEDENCE)
+@ConditionalOnProperty(name = "multipedidos.calentamiento.habilitado", havingValue = "true")
+@Slf4j
+public class CalentamientoPool implements ApplicationRunner {
+
+    private final DataSource dataSource;
+    private final EjecutorShards ejecutorShards;
+    private final ClienteRepository clienteRepository;
+    private final PedidoRepository pedidoRepository;
+    private final TransactionTemplate transaccionLectura;
+
+    @Value("${multipedidos.calentamiento.iteraciones:20}")
+    private int iteraciones;
+
+    public CalentamientoPool(DataSource dataSource, EjecutorShards ejecutorShards, ClienteRepository clienteRepository,
+                             PedidoRepository pedidoRepository, PlatformTransactionManager transactionManager) {
+        this.dataSource = dataSource;
+        this.ejecutorShards = ejecutorShards;
+        this.clienteRepository = clienteRepository;
+        this.pedidoRepository = pedidoRepository;
+        this.transaccionLectura = new TransactionTemplate(transactionManager);
+        this.transaccionLectura.setReadOnly(true);
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        long inicio = System.nanoTime();
+        for (String shard : ejecutorShards.shards()) {
+            try {
+                ejecutorShards.enShard(shard, () -> {
+                    calentarShard(shard);
+                    return null;
+                });
+            } catch (RuntimeException ex) {
+                // Un calentamiento fallido no debe impedir el arranque
+                log.warn("No se pudo calentar el shard {}: {}", shard, ex.getMessage());
+            }
+        }
+        log.info("Calentamiento del pool completado en {} ms", (System.nanoTime() - inicio) / 1_000_000);
+    }
+
+    private void calentarShard(String shard) {
+        // Con el shard fijado, el DataSource enrutado se resuelve al pool de ese shard
+        HikariDataSource hikari = DataSourceUnwrapper.unwrap(dataSource, HikariDataSource.class);
+        int conexiones = hikari != null ? hikari.getMaximumPoolSize() : 1;
+        Long clienteId = transaccionLectura.execute(status ->
+                clienteRepository.findIdsDesde(0L, PageRequest.of(0, 1)).stream().findFirst().orElse(0L));
+
+        ExecutorService hilos = Executors.newFixedThreadPool(conexiones);
+        try {
+            List<CompletableFuture<Void>> tareas = new ArrayList<>(conexiones);
+            for (int i = 0; i < conexiones; i++) {
+                tareas.add(CompletableFuture.runAsync(() -> ejecutorShards.enShard(shard, () -> {
+                    for (int j = 0; j < iteraciones; j++) {
+                        transaccionLectura.executeWithoutResult(status -> consultasCalientes(clienteId));
+                    }
+                    return null;
+                }), hilos));
+            }
+            CompletableFuture.allOf(tareas.toArray(new CompletableFuture[0])).join();
+        } finally {
+            hilos.shutdown();
+        }
+        log.debug("Shard {} calentado con {} conexiones", shard, conexiones);
+    }
+
+    private void consultasCalientes(Long clienteId) {
+        clienteRepository.existsById(clienteId);
+        clienteRepository.findById(clienteId);
+        pedidoRepository.findByClienteId(clienteId);
+        pedidoRepository.findResumenByClienteId(clienteId);
+    }
+}
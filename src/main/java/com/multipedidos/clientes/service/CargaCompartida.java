@@ -0,0 +1,103 @@
+package com.multipedidos.clientes.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+import java.util.function.UnaryOperator;
+
+/**
+ * Agrupa lecturas concurrentes idénticas (single-flight).
+ *
+ * Mientras la carga de una clave está en curso, las peticiones que llegan con
+ * la misma clave esperan y reutilizan su resultado en lugar de repetir la
+ * consulta. Las claves en vuelo se guardan en un ConcurrentHashMap, por lo que
+ * el bloqueo se reparte por clave y no existe un candado global.
+ *
+ * La carga líder se ejecuta en su propia transacción de solo lectura; los
+ * seguidores no abren transacción ni retienen conexiones mientras esperan.
+ *
+ * El valor cargado se comparte entre todas las peticiones agrupadas, por lo que
+ * nunca se entrega directamente: cada llamada recibe el resultado de la función
+ * de copia, y modificarlo no afecta a las demás peticiones.
+ */
+public class CargaCompartida<K, V> {
+
+    private final ConcurrentHashMap<K, CompletableFuture<V>> enVuelo = new ConcurrentHashMap<>();
+    private final TransactionTemplate transaccionLectura;
+    private final UnaryOperator<V> copia;
+    private final Counter cargas;
+    private final Counter compartidas;
+
+    public CargaCompartida(String nombre, MeterRegistry registry, TransactionTemplate transaccionLectura,
+                           UnaryOperator<V> copia) {
+        this.transaccionLectura = transaccionLectura;
+        this.copia = copia;
+        this.cargas = Counter.builder("multipedidos.lecturas.cargas")
+                .description("Lecturas que ejecutaron la consulta a base de datos")
+                .tag("carga", nombre)
+                .register(registry);
+        this.compartidas = Counter.builder("multipedidos.lecturas.compartidas")
+                .description("Lecturas resueltas con el resultado de una carga en vuelo")
+                .tag("carga", nombre)
+                .register(registry);
+        Gauge.builder("multipedidos.lecturas.ratio.coalescencia", this, CargaCompartida::ratioCoalescencia)
+                .description("Proporción de lecturas que reutilizaron una carga en vuelo")
+                .tag("carga", nombre)
+                .register(registry);
+    }
+
+    /**
+     * Devuelve una copia del valor de la clave, reutilizando la carga en curso si la hay.
+     * Las excepciones del cargador se propagan a todas las peticiones que esperaban.
+     */
+    public V cargar(K clave, Supplier<V> cargador) {
+        CompletableFuture<V> nueva = new CompletableFuture<>();
+        CompletableFuture<V> existente = enVuelo.putIfAbsent(clave, nueva);
+        if (existente != null) {
+            compartidas.increment();
+            return copia.apply(esperar(existente));
+        }
+
+        cargas.increment();
+        try {
+            V valor = transaccionLectura.execute(status -> cargador.get());
+            nueva.complete(valor);
+            return copia.apply(valor);
+        } catch (RuntimeException | Error ex) {
+            nueva.completeExceptionally(ex);
+            throw ex;
+        } finally {
+            enVuelo.remove(clave, nueva);
+        }
+    }
+
+    /**
+     * Proporción de lecturas servidas por una carga compartida sobre el total.
+     */
+    public double ratioCoalescencia() {
+        double compartidasTotal = compartidas.count();
+        double total = cargas.count() + compartidasTotal;
+        return total == 0 ? 0.0 : compartidasTotal / total;
+    }
+
+    private V esperar(CompletableFuture<V> futuro) {
+        try {
+            return futuro.join();
+        } catch (CompletionException ex) {
+            Throwable causa = ex.getCause();
+            if (causa instanceof RuntimeException runtime) {
+                throw runtime;
+            }
+            if (causa instanceof Error error) {
+                throw error;
+            }
+            throw ex;
+        }
+    }
+}
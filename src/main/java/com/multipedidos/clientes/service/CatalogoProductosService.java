@@ -0,0 +1,153 @@
+package com.multipedidos.clientes.service;
+
+import com.multipedidos.clientes.model.CatalogoProducto;
+import com.multipedidos.clientes.repository.CatalogoProductoRepository;
+import com.multipedidos.clientes.sharding.ContextoShard;
+import com.multipedidos.clientes.sharding.EjecutorShards;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Servicio del catálogo de productos.
+ *
+ * Mantiene en memoria la correspondencia nombre ↔ ID del catálogo, de modo que
+ * cada nombre se guarda una única vez (internado) y crear o leer pedidos no
+ * necesita consultar el catálogo para los productos ya conocidos. En modo
+ * fragmentado cada shard tiene su propio catálogo y su propia caché.
+ *
+ * Los nombres se comparan de forma exacta: "Café", "cafe" y "CAFE" son productos
+ * distintos. La columna usa colación binaria (ver {@link MigracionCatalogoProductos})
+ * y, aun así, de la base de datos solo se aceptan coincidencias exactas.
+ */
+@Service
+@Slf4j
+public class CatalogoProductosService {
+
+    private final CatalogoProductoRepository catalogoRepository;
+    private final TransactionTemplate transaccionNueva;
+    // Cada shard tiene su propio catálogo y sus propios IDs
+    private final ConcurrentHashMap<String, Cache> cachePorShard = new ConcurrentHashMap<>();
+
+    @Value("${multipedidos.catalogo.maximo-cache:100000}")
+    private int maximoCache;
+
+    public CatalogoProductosService(CatalogoProductoRepository catalogoRepository,
+                                    PlatformTransactionManager transactionManager) {
+        this.catalogoRepository = catalogoRepository;
+        this.transaccionNueva = new TransactionTemplate(transactionManager);
+        this.transaccionNueva.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    /**
+     * Resuelve las entradas del catálogo para los nombres dados, creando las que falten.
+     * El mapa devuelto tiene como claves exactamente los nombres solicitados.
+     * Las referencias devueltas solo llevan ID y nombre, sin estar asociadas a una sesión.
+     * Las altas se confirman en una transacción propia, por lo que debe llamarse fuera
+     * de la transacción que guarda el pedido.
+     */
+    public Map<String, CatalogoProducto> resolver(Collection<String> nombres) {
+        Cache cache = cache();
+        Map<String, CatalogoProducto> resultado = new HashMap<>();
+        Set<String> pendientes = new LinkedHashSet<>();
+        for (String nombre : nombres) {
+            Long id = cache.idPorNombre().get(nombre);
+            if (id != null) {
+                resultado.put(nombre, referencia(id, nombre));
+            } else {
+                pendientes.add(nombre);
+            }
+        }
+        if (pendientes.isEmpty()) {
+            return resultado;
+        }
+
+        for (CatalogoProducto existente : catalogoRepository.findByNombreIn(pendientes)) {
+            // Con una colación que ignore mayúsculas o acentos la consulta devuelve también variantes
+            if (pendientes.remove(existente.getNombre())) {
+                registrar(cache, existente, resultado);
+            }
+        }
+        for (String nombre : pendientes) {
+            registrar(cache, crear(nombre), resultado);
+        }
+        return resultado;
+    }
+
+    /**
+     * Obtiene el nombre de una entrada del catálogo sin inicializar la referencia si ya es conocido.
+     * Debe llamarse dentro de la sesión que cargó la referencia.
+     */
+    public String nombre(CatalogoProducto catalogo) {
+        if (catalogo == null) {
+            return null;
+        }
+        Cache cache = cache();
+        Long id = catalogo.getId();
+        String nombre = cache.nombrePorId().get(id);
+        if (nombre != null) {
+            return nombre;
+        }
+        // Si es un proxy sin cargar, Hibernate lo inicializa junto a otros pendientes (default_batch_fetch_size)
+        return cachear(cache, id, catalogo.getNombre());
+    }
+
+    private CatalogoProducto crear(String nombre) {
+        try {
+            return transaccionNueva.execute(status -> catalogoRepository.save(CatalogoProducto.builder()
+                    .nombre(nombre)
+                    .build()));
+        } catch (DataIntegrityViolationException ex) {
+            // Otro pedido lo dio de alta a la vez
+            log.debug("Producto '{}' creado de forma concurrente en el catálogo", nombre);
+            return catalogoRepository.findByNombreIn(Set.of(nombre)).stream()
+                    .filter(c -> nombre.equals(c.getNombre()))
+                    .findFirst()
+                    .orElseThrow(() -> ex);
+        }
+    }
+
+    private void registrar(Cache cache, CatalogoProducto catalogo, Map<String, CatalogoProducto> resultado) {
+        String nombre = cachear(cache, catalogo.getId(), catalogo.getNombre());
+        resultado.put(nombre, referencia(catalogo.getId(), nombre));
+    }
+
+    /**
+     * Guarda la correspondencia en caché y devuelve la instancia canónica del nombre.
+     */
+    private String cachear(Cache cache, Long id, String nombre) {
+        if (nombre == null || cache.idPorNombre().size() >= maximoCache) {
+            return nombre;
+        }
+        String canonico = cache.nombrePorId().computeIfAbsent(id, k -> nombre);
+        cache.idPorNombre().putIfAbsent(canonico, id);
+        return canonico;
+    }
+
+    private Cache cache() {
+        String shard = ContextoShard.actual();
+        return cachePorShard.computeIfAbsent(shard != null ? shard : EjecutorShards.SHARD_UNICO,
+                s -> new Cache(new ConcurrentHashMap<>(), new ConcurrentHashMap<>()));
+    }
+
+    private CatalogoProducto referencia(Long id, String nombre) {
+        return CatalogoProducto.builder()
+                .id(id)
+                .nombre(nombre)
+                .build();
+    }
+
+    private record Cache(ConcurrentHashMap<String, Long> idPorNombre, ConcurrentHashMap<Long, String> nombrePorId) {
+    }
+}
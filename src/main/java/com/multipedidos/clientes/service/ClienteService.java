@@ -2,17 +2,35 @@ package com.multipedidos.clientes.service;
 
 import com.multipedidos.clientes.dto.ClienteDTO;
 import com.multipedidos.clientes.dto.ClienteInputDTO;
+import com.multipedidos.clientes.dto.LoteDTO;
+import com.multipedidos.clientes.dto.PaginaDTO;
 import com.multipedidos.clientes.model.Cliente;
 import com.multipedidos.clientes.repository.ClienteRepository;
+import com.multipedidos.clientes.sharding.AsignadorIdsClientes;
+import com.multipedidos.clientes.sharding.EjecutorShards;
+import com.multipedidos.clientes.sharding.EnrutarPorCliente;
+import com.multipedidos.clientes.sharding.RegistroCorreos;
 import com.multipedidos.common.exceptions.DatosInvalidosException;
 import com.multipedidos.common.exceptions.RecursoNoEncontradoException;
 import com.multipedidos.common.utils.ValidadorCodigos;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Comparator;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 /**
@@ -23,119 +41,358 @@ import java.util.stream.Collectors;
 @Slf4j
 public class ClienteService {
 
+    private static final int TAMANO_MAXIMO_PAGINA = 100;
+    private static final String CORREO_EN_USO = "Ya existe un cliente con ese correo";
+
+    static final int MAXIMO_IDS_POR_LOTE = 500;
+
     private final ClienteRepository clienteRepository;
+    private final CargaCompartida<Long, ClienteDTO> cargaClientes;
+    private final EstadisticasClienteService estadisticasClienteService;
+    private final EjecutorShards ejecutorShards;
+    private final AsignadorIdsClientes asignadorIdsClientes;
+    private final RegistroCorreos registroCorreos;
+    private final TransactionTemplate transactionTemplate;
 
     /**
      * Crea un nuevo cliente.
+     * En modo fragmentado el correo se reserva primero en el registro global y el
+     * cliente se guarda en el shard que le corresponde según su ID; si el alta falla,
+     * la reserva se libera. Sin fragmentación lo garantiza el índice único del correo.
      */
-    @Transactional
     public ClienteDTO crearCliente(ClienteInputDTO input) {
-        log.info("Creando nuevo cliente: {}", input.getNombre());
+        log.debug("Creando nuevo cliente: {}", input.getNombre());
 
         // Validar email
         if (!ValidadorCodigos.validarEmail(input.getCorreo())) {
             throw new DatosInvalidosException("El formato del correo es inválido");
         }
 
-        // Verificar que el correo no esté registrado
-        if (clienteRepository.existsByCorreo(input.getCorreo())) {
-            throw new DatosInvalidosException("Ya existe un cliente con ese correo");
-        }
-
         Cliente cliente = Cliente.builder()
                 .nombre(input.getNombre())
                 .correo(input.getCorreo())
                 .build();
 
-        Cliente guardado = clienteRepository.save(cliente);
+        // Sin fragmentación el ID lo genera la base de datos
+        Long id = asignadorIdsClientes.reservar();
+        if (id != null && !registroCorreos.reservar(input.getCorreo(), id)) {
+            throw new DatosInvalidosException(CORREO_EN_USO);
+        }
+        String shard = id != null ? ejecutorShards.shardDeCliente(id) : ejecutorShards.shards().get(0);
+        Cliente guardado;
+        try {
+            guardado = ejecutorShards.enShard(shard, () -> transactionTemplate.execute(status -> {
+                Cliente nuevo = id != null ? insertarConId(id, cliente) : clienteRepository.save(cliente);
+                estadisticasClienteService.inicializar(nuevo.getId());
+                return nuevo;
+            }));
+        } catch (RuntimeException ex) {
+            if (id != null) {
+                registroCorreos.liberar(input.getCorreo(), id);
+            }
+            throw traducirCorreoEnUso(ex);
+        }
         log.info("Cliente creado con ID: {}", guardado.getId());
 
         return mapearADTO(guardado);
     }
 
     /**
-     * Obtiene todos los clientes.
+     * Obtiene todos los clientes, consultando los shards en paralelo.
      */
-    @Transactional(readOnly = true)
     public List<ClienteDTO> listarClientes() {
-        log.info("Listando todos los clientes");
-        return clienteRepository.findAll().stream()
+        log.debug("Listando todos los clientes");
+        return ejecutorShards.consultarEnTodos(clienteRepository::findAll).stream()
+                .flatMap(List::stream)
                 .map(this::mapearADTO)
                 .collect(Collectors.toList());
     }
 
     /**
      * Obtiene un cliente por ID.
+     * Las peticiones concurrentes por el mismo ID comparten una única carga.
      */
-    @Transactional(readOnly = true)
+    @EnrutarPorCliente("#id")
     public ClienteDTO obtenerCliente(Long id) {
-        log.info("Buscando cliente con ID: {}", id);
-        Cliente cliente = clienteRepository.findById(id)
-                .orElseThrow(() -> new RecursoNoEncontradoException("Cliente", id));
-        return mapearADTO(cliente);
+        log.debug("Buscando cliente con ID: {}", id);
+        return cargaClientes.cargar(id, () -> {
+            Cliente cliente = clienteRepository.findById(id)
+                    .orElseThrow(() -> new RecursoNoEncontradoException("Cliente", id));
+            return mapearADTO(cliente);
+        });
+    }
+
+    /**
+     * Obtiene varios clientes por ID con una única consulta IN por shard.
+     */
+    public LoteDTO<ClienteDTO> obtenerClientes(List<Long> ids) {
+        Set<Long> idsUnicos = validarIds(ids);
+        log.debug("Buscando {} clientes por ID", idsUnicos.size());
+
+        Map<Long, Cliente> porId = ejecutorShards.consultarPorShard(idsUnicos, ejecutorShards::shardDeCliente,
+                        clienteRepository::findAllById).stream()
+                .flatMap(List::stream)
+                .collect(Collectors.toMap(Cliente::getId, Function.identity()));
+
+        List<ClienteDTO> encontrados = new ArrayList<>(porId.size());
+        List<Long> noEncontrados = new ArrayList<>();
+        for (Long id : idsUnicos) {
+            Cliente cliente = porId.get(id);
+            if (cliente != null) {
+                encontrados.add(mapearADTO(cliente));
+            } else {
+                noEncontrados.add(id);
+            }
+        }
+        return LoteDTO.<ClienteDTO>builder()
+                .encontrados(encontrados)
+                .noEncontrados(noEncontrados)
+                .build();
+    }
+
+    /**
+     * Busca clientes por prefijo de nombre o correo, paginando por clave.
+     * Primero se recorren los clientes cuyo nombre empieza por el prefijo, en orden
+     * (nombre, id), y después los que solo coinciden por correo, en orden de correo.
+     * Cada tramo es un rango de su índice; el cursor guarda el tramo y la última
+     * clave entregada, así que el coste no crece con el número de página.
+     * Con varios shards, cada uno devuelve sus siguientes tamano + 1 coincidencias
+     * a partir del cursor y se mezclan en orden.
+     */
+    public PaginaDTO<ClienteDTO> buscarClientes(String termino, String cursor, int tamano) {
+        log.debug("Buscando clientes por prefijo: {}", termino);
+
+        if (termino == null || termino.isBlank()) {
+            throw new DatosInvalidosException("El término de búsqueda es obligatorio");
+        }
+        if (tamano < 1 || tamano > TAMANO_MAXIMO_PAGINA) {
+            throw new DatosInvalidosException("El tamaño de página debe estar entre 1 y " + TAMANO_MAXIMO_PAGINA);
+        }
+
+        String patron = escaparLike(termino.trim()) + "%";
+        CursorBusqueda desde = CursorBusqueda.decodificar(cursor);
+        int limite = tamano + 1;
+
+        Comparator<String> colacion = ejecutorShards.colacion();
+        List<Cliente> encontrados = new ArrayList<>(limite);
+        if (desde.porNombre()) {
+            encontrados.addAll(mezclar(ejecutorShards.consultarEnTodos(() -> clienteRepository.buscarPorNombreDesde(
+                    patron, desde.clave(), desde.id(), PageRequest.of(0, limite))),
+                    Comparator.comparing(Cliente::getNombre, colacion).thenComparing(Cliente::getId), limite));
+        }
+        int porNombre = encontrados.size();
+        if (porNombre < limite) {
+            String correoDesde = desde.porNombre() ? "" : desde.clave();
+            int restantes = limite - porNombre;
+            encontrados.addAll(mezclar(ejecutorShards.consultarEnTodos(() -> clienteRepository.buscarPorCorreoDesde(
+                    patron, correoDesde, PageRequest.of(0, restantes))),
+                    Comparator.comparing(Cliente::getCorreo, colacion), restantes));
+        }
+
+        boolean haySiguiente = encontrados.size() > tamano;
+        List<Cliente> contenido = haySiguiente ? encontrados.subList(0, tamano) : encontrados;
+        String siguiente = null;
+        if (haySiguiente) {
+            Cliente ultimo = contenido.get(tamano - 1);
+            siguiente = tamano <= porNombre
+                    ? CursorBusqueda.porNombre(ultimo).codificar()
+                    : CursorBusqueda.porCorreo(ultimo).codificar();
+        }
+
+        return PaginaDTO.<ClienteDTO>builder()
+                .contenido(contenido.stream()
+                        .map(this::mapearADTO)
+                        .collect(Collectors.toList()))
+                .tamano(tamano)
+                .haySiguiente(haySiguiente)
+                .siguiente(siguiente)
+                .build();
+    }
+
+    /**
+     * Mezcla los resultados de cada shard y se queda con los primeros en el orden dado,
+     * que sigue la colación configurada de los shards ({@link EjecutorShards#colacion()}).
+     * Con un solo shard se respeta el orden devuelto por la base de datos.
+     */
+    private static List<Cliente> mezclar(List<List<Cliente>> porShard, Comparator<Cliente> orden, int limite) {
+        if (porShard.size() == 1) {
+            return porShard.get(0);
+        }
+        return porShard.stream()
+                .flatMap(List::stream)
+                .sorted(orden)
+                .limit(limite)
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Escapa los comodines de LIKE con '!', que no necesita escaparse en MySQL ni en H2.
+     */
+    private static String escaparLike(String texto) {
+        return texto.replace("!", "!!").replace("%", "!%").replace("_", "!_");
+    }
+
+    /**
+     * Posición de la búsqueda: tramo (N por nombre, C por correo) y última clave entregada.
+     * Se codifica en Base64 URL para que el cliente lo trate como un valor opaco.
+     */
+    private record CursorBusqueda(boolean porNombre, String clave, Long id) {
+
+        private static final CursorBusqueda INICIO = new CursorBusqueda(true, "", 0L);
+
+        static CursorBusqueda porNombre(Cliente cliente) {
+            return new CursorBusqueda(true, cliente.getNombre(), cliente.getId());
+        }
+
+        static CursorBusqueda porCorreo(Cliente cliente) {
+            return new CursorBusqueda(false, cliente.getCorreo(), null);
+        }
+
+        String codificar() {
+            String texto = porNombre ? "N:" + id + ":" + clave : "C:" + clave;
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(texto.getBytes(StandardCharsets.UTF_8));
+        }
+
+        static CursorBusqueda decodificar(String cursor) {
+            if (cursor == null || cursor.isBlank()) {
+                return INICIO;
+            }
+            try {
+                String texto = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+                if (texto.startsWith("C:")) {
+                    return new CursorBusqueda(false, texto.substring(2), null);
+                }
+                String[] partes = texto.split(":", 3);
+                if (partes.length == 3 && "N".equals(partes[0])) {
+                    return new CursorBusqueda(true, partes[2], Long.parseLong(partes[1]));
+                }
+            } catch (IllegalArgumentException ex) {
+                // Base64 o ID mal formados: se trata como cursor inválido
+            }
+            throw new DatosInvalidosException("El cursor de búsqueda es inválido");
+        }
     }
 
     /**
      * Actualiza un cliente existente.
+     * Si cambia el correo, el nuevo se reserva en el registro global antes de abrir la
+     * transacción en el shard del cliente, y el anterior se libera tras confirmarla.
      */
-    @Transactional
     public ClienteDTO actualizarCliente(Long id, ClienteInputDTO input) {
-        log.info("Actualizando cliente con ID: {}", id);
-
-        // Verificar que el cliente existe
-        Cliente cliente = clienteRepository.findById(id)
-                .orElseThrow(() -> new RecursoNoEncontradoException("Cliente", id));
+        log.debug("Actualizando cliente con ID: {}", id);
 
         // Validar email
         if (!ValidadorCodigos.validarEmail(input.getCorreo())) {
             throw new DatosInvalidosException("El formato del correo es inválido");
         }
 
-        // Verificar que el correo no esté registrado por otro cliente
-        if (!cliente.getCorreo().equals(input.getCorreo()) && 
-            clienteRepository.existsByCorreo(input.getCorreo())) {
-            throw new DatosInvalidosException("Ya existe un cliente con ese correo");
+        String shard = ejecutorShards.shardDeCliente(id);
+        String correoAnterior = ejecutorShards.enShard(shard, () -> clienteRepository.findById(id))
+                .map(Cliente::getCorreo)
+                .orElseThrow(() -> new RecursoNoEncontradoException("Cliente", id));
+        // La colación no distingue mayúsculas: cambiarlas no cambia la entrada del registro
+        boolean cambiaCorreo = !correoAnterior.equalsIgnoreCase(input.getCorreo());
+        if (cambiaCorreo && !registroCorreos.reservar(input.getCorreo(), id)) {
+            throw new DatosInvalidosException(CORREO_EN_USO);
         }
 
-        // Actualizar datos
-        cliente.setNombre(input.getNombre());
-        cliente.setCorreo(input.getCorreo());
+        Cliente actualizado;
+        try {
+            actualizado = ejecutorShards.enShard(shard, () -> transactionTemplate.execute(status -> {
+                // Verificar que el cliente existe
+                Cliente cliente = clienteRepository.findById(id)
+                        .orElseThrow(() -> new RecursoNoEncontradoException("Cliente", id));
 
-        Cliente actualizado = clienteRepository.save(cliente);
+                // Actualizar datos
+                cliente.setNombre(input.getNombre());
+                cliente.setCorreo(input.getCorreo());
+                return clienteRepository.saveAndFlush(cliente);
+            }));
+        } catch (RuntimeException ex) {
+            if (cambiaCorreo) {
+                registroCorreos.liberar(input.getCorreo(), id);
+            }
+            throw traducirCorreoEnUso(ex);
+        }
+        if (cambiaCorreo) {
+            registroCorreos.liberar(correoAnterior, id);
+        }
         log.info("Cliente actualizado con ID: {}", actualizado.getId());
 
         return mapearADTO(actualizado);
     }
 
     /**
-     * Elimina un cliente.
+     * Elimina un cliente y, tras confirmar el borrado, libera su correo en el registro global.
      */
-    @Transactional
     public void eliminarCliente(Long id) {
-        log.info("Eliminando cliente con ID: {}", id);
+        log.debug("Eliminando cliente con ID: {}", id);
 
-        // Verificar que el cliente existe
-        Cliente cliente = clienteRepository.findById(id)
-                .orElseThrow(() -> new RecursoNoEncontradoException("Cliente", id));
+        String correo = ejecutorShards.enShard(ejecutorShards.shardDeCliente(id), () -> transactionTemplate.execute(status -> {
+            // Verificar que el cliente existe
+            Cliente cliente = clienteRepository.findById(id)
+                    .orElseThrow(() -> new RecursoNoEncontradoException("Cliente", id));
 
-        // Verificar si tiene pedidos asociados
-        if (clienteRepository.countPedidosByClienteId(id) > 0) {
-            throw new DatosInvalidosException("No se puede eliminar el cliente porque tiene pedidos asociados");
-        }
+            // Verificar si tiene pedidos asociados
+            if (estadisticasClienteService.contarPedidos(id) > 0) {
+                throw new DatosInvalidosException("No se puede eliminar el cliente porque tiene pedidos asociados");
+            }
 
-        clienteRepository.delete(cliente);
+            clienteRepository.delete(cliente);
+            estadisticasClienteService.eliminar(id);
+            return cliente.getCorreo();
+        }));
+        registroCorreos.liberar(correo, id);
         log.info("Cliente eliminado con ID: {}", id);
     }
 
     /**
      * Verifica si un cliente existe.
      */
+    @EnrutarPorCliente("#id")
     @Transactional(readOnly = true)
     public boolean existeCliente(Long id) {
-        log.info("Verificando existencia de cliente con ID: {}", id);
+        log.debug("Verificando existencia de cliente con ID: {}", id);
         return clienteRepository.existsById(id);
     }
 
+    /**
+     * Valida una lista de IDs y la deduplica conservando el orden solicitado.
+     */
+    static Set<Long> validarIds(List<Long> ids) {
+        if (ids == null || ids.isEmpty()) {
+            throw new DatosInvalidosException("Debe indicar al menos un ID");
+        }
+        Set<Long> idsUnicos = new LinkedHashSet<>(ids);
+        idsUnicos.remove(null);
+        if (idsUnicos.isEmpty()) {
+            throw new DatosInvalidosException("Debe indicar al menos un ID");
+        }
+        if (idsUnicos.size() > MAXIMO_IDS_POR_LOTE) {
+            throw new DatosInvalidosException("No se pueden consultar más de " + MAXIMO_IDS_POR_LOTE + " IDs a la vez");
+        }
+        return idsUnicos;
+    }
+
+    /**
+     * Un choque con el índice único del correo (sin fragmentación, altas concurrentes)
+     * se devuelve como el mismo error de datos que la comprobación previa.
+     */
+    private static RuntimeException traducirCorreoEnUso(RuntimeException ex) {
+        return ex instanceof DataIntegrityViolationException ? new DatosInvalidosException(CORREO_EN_USO) : ex;
+    }
+
+    /**
+     * Inserta el cliente con el ID reservado y lo devuelve como quedó guardado.
+     */
+    private Cliente insertarConId(Long id, Cliente cliente) {
+        LocalDateTime ahora = LocalDateTime.now();
+        clienteRepository.insertarConId(id, cliente.getNombre(), cliente.getCorreo(), ahora);
+        cliente.setId(id);
+        cliente.setFechaRegistro(ahora);
+        return cliente;
+    }
+
     /**
      * Mapea una entidad Cliente a DTO.
      */
@@ -0,0 +1,188 @@
+package com.multipedidos.clientes.service;
+
+import com.multipedidos.clientes.dto.EstadisticasClienteDTO;
+import com.multipedidos.clientes.model.EstadisticasCliente;
+import com.multipedidos.clientes.model.Pedido;
+import com.multipedidos.clientes.repository.EstadisticasClienteRepository;
+import com.multipedidos.clientes.repository.PedidoArchivadoRepository;
+import com.multipedidos.clientes.repository.PedidoRepository;
+import com.multipedidos.clientes.repository.ResumenPedidosCliente;
+import com.multipedidos.clientes.sharding.EnrutarPorCliente;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.stream.Collectors;
+
+/**
+ * Servicio que mantiene las estadísticas de pedidos por cliente
+ * (cantidad de pedidos, gasto acumulado y fecha del último pedido).
+ *
+ * Las estadísticas se actualizan dentro de la misma transacción que el pedido
+ * y se reconcilian periódicamente contra los pedidos activos y archivados.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class EstadisticasClienteService {
+
+    private final EstadisticasClienteRepository estadisticasRepository;
+    private final PedidoRepository pedidoRepository;
+    private final PedidoArchivadoRepository pedidoArchivadoRepository;
+
+    /**
+     * Crea las estadísticas vacías de un cliente recién registrado.
+     */
+    @Transactional
+    public void inicializar(Long clienteId) {
+        estadisticasRepository.save(vacias(clienteId));
+    }
+
+    /**
+     * Suma un pedido recién guardado a las estadísticas de su cliente.
+     */
+    @Transactional
+    public void registrarPedido(Pedido pedido) {
+        registrarPedidos(List.of(pedido));
+    }
+
+    /**
+     * Suma pedidos recién guardados a las estadísticas de sus clientes, con un
+     * upsert por cliente. Si un cliente aún no tenía fila, se crea solo con estos
+     * pedidos: no se recalcula desde la tabla de pedidos, que ya los incluye y los
+     * contaría dos veces. La reconciliación periódica corrige a los clientes
+     * anteriores a las estadísticas.
+     */
+    @Transactional
+    public void registrarPedidos(List<Pedido> pedidos) {
+        pedidos.stream()
+                .collect(Collectors.groupingBy(Pedido::getClienteId, LinkedHashMap::new, Collectors.toList()))
+                .forEach((clienteId, delCliente) -> estadisticasRepository.registrarPedidos(
+                        clienteId,
+                        delCliente.size(),
+                        delCliente.stream().map(Pedido::getTotal).reduce(BigDecimal.ZERO, BigDecimal::add),
+                        delCliente.stream().map(Pedido::getFechaPedido).max(Comparator.naturalOrder()).orElse(null)));
+    }
+
+    /**
+     * Descuenta del gasto acumulado el total de un pedido cancelado.
+     */
+    @Transactional
+    public void registrarCancelacion(Pedido pedido) {
+        estadisticasRepository.descontarTotal(pedido.getClienteId(), pedido.getTotal());
+    }
+
+    /**
+     * Obtiene las estadísticas de un cliente.
+     */
+    @EnrutarPorCliente("#clienteId")
+    @Transactional(readOnly = true)
+    public EstadisticasClienteDTO obtenerEstadisticas(Long clienteId) {
+        EstadisticasCliente estadisticas = estadisticasRepository.findById(clienteId)
+                .orElseGet(() -> calcular(clienteId));
+        return mapearADTO(estadisticas);
+    }
+
+    /**
+     * Cuenta los pedidos de un cliente usando las estadísticas, o sus pedidos si aún no existen.
+     */
+    @Transactional(readOnly = true)
+    public long contarPedidos(Long clienteId) {
+        return estadisticasRepository.findById(clienteId)
+                .orElseGet(() -> calcular(clienteId))
+                .getCantidadPedidos();
+    }
+
+    /**
+     * Elimina las estadísticas de un cliente.
+     */
+    @Transactional
+    public void eliminar(Long clienteId) {
+        estadisticasRepository.deleteById(clienteId);
+    }
+
+    /**
+     * Recalcula las estadísticas de un lote de clientes y corrige las desviaciones.
+     * Las filas existentes se bloquean antes de leer los pedidos para no pisar
+     * incrementos concurrentes.
+     *
+     * @return número de clientes cuyas estadísticas se corrigieron
+     */
+    @Transactional
+    public int reconciliarLote(List<Long> clienteIds) {
+        Map<Long, EstadisticasCliente> actuales = estadisticasRepository.findAllParaActualizar(clienteIds).stream()
+                .collect(Collectors.toMap(EstadisticasCliente::getClienteId, e -> e));
+        Map<Long, EstadisticasCliente> calculadas = calcular(clienteIds);
+
+        int corregidas = 0;
+        for (Long clienteId : clienteIds) {
+            EstadisticasCliente esperadas = calculadas.getOrDefault(clienteId, vacias(clienteId));
+            EstadisticasCliente actual = actuales.get(clienteId);
+            if (actual == null || !coinciden(actual, esperadas)) {
+                log.warn("Estadísticas del cliente ID {} desviadas: {} -> {}", clienteId, actual, esperadas);
+                estadisticasRepository.save(esperadas);
+                corregidas++;
+            }
+        }
+        return corregidas;
+    }
+
+    private EstadisticasCliente calcular(Long clienteId) {
+        return calcular(List.of(clienteId)).getOrDefault(clienteId, vacias(clienteId));
+    }
+
+    /**
+     * Calcula las estadísticas de los clientes sumando pedidos activos y archivados.
+     */
+    private Map<Long, EstadisticasCliente> calcular(List<Long> clienteIds) {
+        Map<Long, EstadisticasCliente> resultado = new HashMap<>();
+        acumular(resultado, pedidoRepository.resumirPorClientes(clienteIds, Pedido.EstadoPedido.CANCELADO));
+        acumular(resultado, pedidoArchivadoRepository.resumirPorClientes(clienteIds, Pedido.EstadoPedido.CANCELADO));
+        return resultado;
+    }
+
+    private void acumular(Map<Long, EstadisticasCliente> resultado, List<ResumenPedidosCliente> resumenes) {
+        for (ResumenPedidosCliente resumen : resumenes) {
+            EstadisticasCliente estadisticas = resultado.computeIfAbsent(resumen.getClienteId(), this::vacias);
+            estadisticas.setCantidadPedidos(estadisticas.getCantidadPedidos() + resumen.getCantidadPedidos());
+            estadisticas.setTotalGastado(estadisticas.getTotalGastado().add(resumen.getTotalGastado()));
+            LocalDateTime fecha = resumen.getFechaUltimoPedido();
+            if (fecha != null && (estadisticas.getFechaUltimoPedido() == null
+                    || fecha.isAfter(estadisticas.getFechaUltimoPedido()))) {
+                estadisticas.setFechaUltimoPedido(fecha);
+            }
+        }
+    }
+
+    private EstadisticasCliente vacias(Long clienteId) {
+        return EstadisticasCliente.builder()
+                .clienteId(clienteId)
+                .cantidadPedidos(0)
+                .totalGastado(BigDecimal.ZERO)
+                .build();
+    }
+
+    private boolean coinciden(EstadisticasCliente actual, EstadisticasCliente esperadas) {
+        return actual.getCantidadPedidos() == esperadas.getCantidadPedidos()
+                && actual.getTotalGastado().compareTo(esperadas.getTotalGastado()) == 0
+                && Objects.equals(actual.getFechaUltimoPedido(), esperadas.getFechaUltimoPedido());
+    }
+
+    private EstadisticasClienteDTO mapearADTO(EstadisticasCliente estadisticas) {
+        return EstadisticasClienteDTO.builder()
+                .clienteId(estadisticas.getClienteId())
+                .cantidadPedidos(estadisticas.getCantidadPedidos())
+                .totalGastado(estadisticas.getTotalGastado())
+                .fechaUltimoPedido(estadisticas.getFechaUltimoPedido())
+                .build();
+    }
+}
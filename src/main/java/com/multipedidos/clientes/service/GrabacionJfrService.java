@@ -0,0 +1,107 @@
+package com.multipedidos.clientes.service;
+
+import com.multipedidos.clientes.config.DiagnosticoProperties;
+import com.multipedidos.common.exceptions.DatosInvalidosException;
+import jdk.jfr.Configuration;
+import jdk.jfr.FlightRecorder;
+import jdk.jfr.Recording;
+import jdk.jfr.RecordingState;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.text.ParseException;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Grabaciones JFR bajo demanda, acotadas en duración, tamaño y número de grabaciones activas.
+ * Solo puede haber una grabación propia a la vez; al iniciar otra se descarta la anterior.
+ *
+ * Los eventos que recogen propiedades del sistema, variables de entorno, argumentos de la JVM
+ * y procesos del host se desactivan: ahí suelen viajar credenciales y el fichero sale del servidor.
+ */
+@Service
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "multipedidos.diagnostico.grabacion.habilitada", havingValue = "true")
+@Slf4j
+public class GrabacionJfrService {
+
+    private static final List<String> EVENTOS_SENSIBLES = List.of(
+            "jdk.InitialSystemProperty",
+            "jdk.InitialEnvironmentVariable",
+            "jdk.JVMInformation",
+            "jdk.SystemProcess");
+
+    private final DiagnosticoProperties diagnosticoProperties;
+    private Recording grabacion;
+
+    /**
+     * Inicia una grabación con la configuración "profile" de JFR y los eventos propios.
+     * Rechaza duraciones mayores que la máxima configurada y el inicio cuando ya hay
+     * tantas grabaciones en curso en la JVM como permite la configuración.
+     */
+    public synchronized Duration iniciar(Duration duracion) {
+        DiagnosticoProperties.Grabacion config = diagnosticoProperties.getGrabacion();
+        if (duracion.isNegative() || duracion.isZero()) {
+            throw new DatosInvalidosException("La duración de la grabación debe ser positiva");
+        }
+        if (duracion.compareTo(config.getDuracionMaxima()) > 0) {
+            throw new DatosInvalidosException("La duración máxima de una grabación es " + config.getDuracionMaxima());
+        }
+        if (grabacion != null && grabacion.getState() == RecordingState.RUNNING) {
+            throw new DatosInvalidosException("Ya hay una grabación en curso");
+        }
+        long activas = FlightRecorder.getFlightRecorder().getRecordings().stream()
+                .filter(r -> r.getState() == RecordingState.RUNNING)
+                .count();
+        if (activas >= config.getMaximoGrabacionesActivas()) {
+            throw new DatosInvalidosException("Ya hay " + activas + " grabaciones JFR en curso en la JVM");
+        }
+        cerrar();
+
+        try {
+            Map<String, String> ajustes = new HashMap<>(Configuration.getConfiguration("profile").getSettings());
+            EVENTOS_SENSIBLES.forEach(evento -> ajustes.put(evento + "#enabled", "false"));
+            Recording nueva = new Recording(ajustes);
+            nueva.setName("multipedidos-diagnostico");
+            nueva.setToDisk(true);
+            nueva.setMaxSize(config.getTamanoMaximo().toBytes());
+            nueva.setDuration(duracion);
+            nueva.start();
+            grabacion = nueva;
+        } catch (IOException | ParseException ex) {
+            throw new IllegalStateException("No se pudo cargar la configuración de JFR", ex);
+        }
+        log.info("Grabación JFR iniciada durante {}", duracion);
+        return duracion;
+    }
+
+    /**
+     * Vuelca lo grabado hasta ahora a un fichero temporal que el llamante debe borrar.
+     */
+    public synchronized Path volcar() throws IOException {
+        if (grabacion == null) {
+            throw new DatosInvalidosException("No hay ninguna grabación iniciada");
+        }
+        Path fichero = Files.createTempFile("multipedidos-", ".jfr");
+        grabacion.dump(fichero);
+        return fichero;
+    }
+
+    /**
+     * Detiene y descarta la grabación actual.
+     */
+    public synchronized void cerrar() {
+        if (grabacion != null) {
+            grabacion.close();
+            grabacion = null;
+        }
+    }
+}
@@ -0,0 +1,317 @@
+package com.multipedidos.clientes.service;
+
+import com.multipedidos.clientes.dto.ResultadoImportacionDTO;
+import com.multipedidos.clientes.dto.ResultadoImportacionDTO.FilaRechazadaDTO;
+import com.multipedidos.clientes.repository.ClienteRepository;
+import com.multipedidos.clientes.sharding.AsignadorIdsClientes;
+import com.multipedidos.clientes.sharding.EjecutorShards;
+import com.multipedidos.clientes.sharding.RegistroCorreos;
+import com.multipedidos.common.utils.ValidadorCodigos;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Servicio de importación masiva de clientes desde CSV ({@code nombre,correo}).
+ *
+ * El archivo se lee registro a registro ({@link LectorCsv}; un campo entre comillas
+ * puede contener saltos de línea) y se procesa en lotes: los correos se
+ * validan en paralelo, los duplicados se descartan contra la base de datos con
+ * una consulta IN por lote y los clientes válidos se insertan con un INSERT
+ * multi-fila. Cada lote se confirma en su propia transacción (una por shard),
+ * por lo que la memoria usada no depende del tamaño del archivo.
+ * En modo fragmentado la consulta de duplicados es solo un filtro previo: los
+ * correos se reservan en el registro global antes de insertar, y las reservas
+ * de las filas que no llegan a insertarse se liberan.
+ */
+@Service
+@Slf4j
+public class ImportacionClientesService {
+
+    private static final int MAXIMO_RECHAZOS_DETALLADOS = 1000;
+    private static final int LONGITUD_MAXIMA = 255;
+
+    private final ClienteRepository clienteRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transaccion;
+    private final EjecutorShards ejecutorShards;
+    private final AsignadorIdsClientes asignadorIdsClientes;
+    private final RegistroCorreos registroCorreos;
+
+    @Value("${multipedidos.importacion.tamano-lote:1000}")
+    private int tamanoLote;
+
+    public ImportacionClientesService(ClienteRepository clienteRepository, JdbcTemplate jdbcTemplate,
+                                      PlatformTransactionManager transactionManager, EjecutorShards ejecutorShards,
+                                      AsignadorIdsClientes asignadorIdsClientes, RegistroCorreos registroCorreos) {
+        this.clienteRepository = clienteRepository;
+        this.jdbcTemplate = jdbcTemplate;
+        this.transaccion = new TransactionTemplate(transactionManager);
+        this.ejecutorShards = ejecutorShards;
+        this.asignadorIdsClientes = asignadorIdsClientes;
+        this.registroCorreos = registroCorreos;
+    }
+
+    /**
+     * Importa los clientes del CSV recibido.
+     */
+    public ResultadoImportacionDTO importar(InputStream entrada) throws IOException {
+        log.info("Iniciando importación de clientes");
+        Resultado resultado = new Resultado();
+        List<Fila> lote = new ArrayList<>(tamanoLote);
+
+        LectorCsv lector = new LectorCsv(new BufferedReader(new InputStreamReader(entrada, StandardCharsets.UTF_8)));
+        List<String> columnas;
+        while ((columnas = lector.siguiente()) != null) {
+            if (esVacio(columnas) || (lector.lineaInicio() == 1 && esCabecera(columnas))) {
+                continue;
+            }
+            lote.add(new Fila(lector.lineaInicio(), columnas));
+            if (lote.size() == tamanoLote) {
+                procesarLote(lote, resultado);
+                lote.clear();
+            }
+        }
+        if (!lote.isEmpty()) {
+            procesarLote(lote, resultado);
+        }
+
+        log.info("Importación finalizada: {} filas, {} importados, {} rechazados",
+                resultado.filas, resultado.importados, resultado.rechazados);
+        return ResultadoImportacionDTO.builder()
+                .filasProcesadas(resultado.filas)
+                .importados(resultado.importados)
+                .rechazados(resultado.rechazados)
+                .rechazos(resultado.detalle)
+                .rechazosTruncados(resultado.rechazados > resultado.detalle.size())
+                .build();
+    }
+
+    private void procesarLote(List<Fila> lote, Resultado resultado) {
+        resultado.filas += lote.size();
+
+        // Validar en paralelo; el orden del lote se conserva
+        List<String> motivos = lote.parallelStream()
+                .map(this::validar)
+                .collect(Collectors.toList());
+
+        List<Fila> validas = new ArrayList<>(lote.size());
+        Set<String> correosLote = new HashSet<>();
+        for (int i = 0; i < lote.size(); i++) {
+            Fila fila = lote.get(i);
+            if (motivos.get(i) != null) {
+                resultado.rechazar(fila, motivos.get(i));
+            } else if (!correosLote.add(fila.correoNormalizado())) {
+                resultado.rechazar(fila, "Correo duplicado en el archivo");
+            } else {
+                validas.add(fila);
+            }
+        }
+        if (validas.isEmpty()) {
+            return;
+        }
+
+        List<String> correos = validas.stream().map(Fila::correo).collect(Collectors.toList());
+        Set<String> existentes = ejecutorShards.consultarEnTodos(() -> clienteRepository.findCorreosExistentes(correos)).stream()
+                .flatMap(List::stream)
+                .map(c -> c.toLowerCase(Locale.ROOT))
+                .collect(Collectors.toSet());
+        List<Fila> nuevas = new ArrayList<>(validas.size());
+        for (Fila fila : validas) {
+            if (existentes.contains(fila.correoNormalizado())) {
+                resultado.rechazar(fila, "Ya existe un cliente con ese correo");
+            } else {
+                nuevas.add(fila);
+            }
+        }
+        if (nuevas.isEmpty()) {
+            return;
+        }
+
+        // En modo fragmentado los IDs se reservan antes para saber a qué shard va cada fila
+        long[] ids = asignadorIdsClientes.reservar(nuevas.size());
+        List<Alta> altas = new ArrayList<>(nuevas.size());
+        for (int i = 0; i < nuevas.size(); i++) {
+            altas.add(new Alta(nuevas.get(i), ids != null ? ids[i] : null));
+        }
+        if (ids != null) {
+            altas = reservarCorreos(altas, resultado);
+            if (altas.isEmpty()) {
+                return;
+            }
+        }
+        ejecutorShards.agrupar(altas, a -> a.id() != null ? ejecutorShards.shardDeCliente(a.id()) : ejecutorShards.shards().get(0))
+                .forEach((shard, grupo) -> ejecutorShards.enShard(shard, () -> {
+                    insertarGrupo(grupo, resultado);
+                    return null;
+                }));
+    }
+
+    /**
+     * Reserva los correos en el registro global y devuelve las altas cuya reserva se obtuvo.
+     */
+    private List<Alta> reservarCorreos(List<Alta> altas, Resultado resultado) {
+        Set<String> ocupados = registroCorreos.reservar(correosDe(altas));
+        if (ocupados.isEmpty()) {
+            return altas;
+        }
+        List<Alta> reservadas = new ArrayList<>(altas.size());
+        for (Alta alta : altas) {
+            if (ocupados.contains(alta.fila().correo())) {
+                resultado.rechazar(alta.fila(), "Ya existe un cliente con ese correo");
+            } else {
+                reservadas.add(alta);
+            }
+        }
+        return reservadas;
+    }
+
+    private void insertarGrupo(List<Alta> altas, Resultado resultado) {
+        try {
+            transaccion.executeWithoutResult(status -> insertar(altas));
+            resultado.importados += altas.size();
+        } catch (DataIntegrityViolationException ex) {
+            // Un correo se registró de forma concurrente: insertar fila a fila para aislarlo
+            log.debug("Conflicto al insertar lote de {} clientes, reintentando fila a fila", altas.size());
+            for (Alta alta : altas) {
+                try {
+                    transaccion.executeWithoutResult(status -> insertar(List.of(alta)));
+                    resultado.importados++;
+                } catch (DataIntegrityViolationException duplicado) {
+                    liberarCorreos(List.of(alta));
+                    resultado.rechazar(alta.fila(), "Ya existe un cliente con ese correo");
+                }
+            }
+        } catch (RuntimeException ex) {
+            liberarCorreos(altas);
+            throw ex;
+        }
+    }
+
+    private void liberarCorreos(List<Alta> altas) {
+        if (altas.get(0).id() != null) {
+            registroCorreos.liberar(correosDe(altas));
+        }
+    }
+
+    private static Map<String, Long> correosDe(List<Alta> altas) {
+        Map<String, Long> correos = new LinkedHashMap<>();
+        altas.forEach(alta -> correos.put(alta.fila().correo(), alta.id()));
+        return correos;
+    }
+
+    /**
+     * Inserta las filas con un único INSERT multi-fila, con el ID reservado si lo hay,
+     * y crea sus estadísticas vacías con un INSERT ... SELECT en la misma transacción.
+     */
+    private void insertar(List<Alta> altas) {
+        boolean conId = altas.get(0).id() != null;
+        int columnas = conId ? 4 : 3;
+        String valores = conId ? "(?, ?, ?, ?)" : "(?, ?, ?)";
+        StringBuilder sql = new StringBuilder(conId
+                ? "INSERT INTO clientes (id, nombre, correo, fecha_registro) VALUES "
+                : "INSERT INTO clientes (nombre, correo, fecha_registro) VALUES ");
+        Object[] parametros = new Object[altas.size() * columnas];
+        Timestamp ahora = Timestamp.valueOf(LocalDateTime.now());
+        for (int i = 0; i < altas.size(); i++) {
+            Alta alta = altas.get(i);
+            sql.append(i == 0 ? valores : ", " + valores);
+            int j = i * columnas;
+            if (conId) {
+                parametros[j++] = alta.id();
+            }
+            parametros[j++] = alta.fila().nombre();
+            parametros[j++] = alta.fila().correo();
+            parametros[j] = ahora;
+        }
+        jdbcTemplate.update(sql.toString(), parametros);
+
+        // Estadísticas vacías de los nuevos clientes, como en el alta individual
+        String correos = String.join(", ", Collections.nCopies(altas.size(), "?"));
+        jdbcTemplate.update("INSERT INTO estadisticas_clientes (cliente_id, cantidad_pedidos, total_gastado) "
+                        + "SELECT id, 0, 0 FROM clientes WHERE correo IN (" + correos + ")",
+                altas.stream().map(alta -> alta.fila().correo()).toArray());
+    }
+
+    private String validar(Fila fila) {
+        if (fila.columnas().size() != 2) {
+            return "Se esperaban 2 columnas (nombre,correo) y hay " + fila.columnas().size();
+        }
+        if (fila.nombre().isBlank()) {
+            return "El nombre es obligatorio";
+        }
+        if (fila.nombre().length() > LONGITUD_MAXIMA || fila.correo().length() > LONGITUD_MAXIMA) {
+            return "El nombre y el correo no pueden superar " + LONGITUD_MAXIMA + " caracteres";
+        }
+        if (fila.correo().isBlank() || !ValidadorCodigos.validarEmail(fila.correo())) {
+            return "El formato del correo es inválido";
+        }
+        return null;
+    }
+
+    private static boolean esVacio(List<String> columnas) {
+        return columnas.size() == 1 && columnas.get(0).isEmpty();
+    }
+
+    private static boolean esCabecera(List<String> columnas) {
+        return columnas.size() == 2
+                && columnas.get(0).equalsIgnoreCase("nombre")
+                && columnas.get(1).equalsIgnoreCase("correo");
+    }
+
+    private record Fila(long numero, List<String> columnas) {
+        String nombre() {
+            return columnas.get(0);
+        }
+
+        String correo() {
+            return columnas.size() > 1 ? columnas.get(1) : "";
+        }
+
+        String correoNormalizado() {
+            return correo().toLowerCase(Locale.ROOT);
+        }
+    }
+
+    private record Alta(Fila fila, Long id) {
+    }
+
+    private static class Resultado {
+        private long filas;
+        private long importados;
+        private long rechazados;
+        private final List<FilaRechazadaDTO> detalle = new ArrayList<>();
+
+        void rechazar(Fila fila, String motivo) {
+            rechazados++;
+            if (detalle.size() < MAXIMO_RECHAZOS_DETALLADOS) {
+                detalle.add(FilaRechazadaDTO.builder()
+                        .linea(fila.numero())
+                        .correo(fila.correo())
+                        .motivo(motivo)
+                        .build());
+            }
+        }
+    }
+}
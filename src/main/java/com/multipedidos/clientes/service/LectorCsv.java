@@ -0,0 +1,85 @@
+package com.multipedidos.clientes.service;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Lector de registros CSV para la importación de clientes.
+ *
+ * Admite campos entre comillas dobles con comas, comillas escapadas ("") y
+ * saltos de línea: un registro termina en el primer salto de línea fuera de
+ * comillas. Un campo con comillas sin cerrar deja de extenderse al superar
+ * {@link #LONGITUD_MAXIMA_REGISTRO} caracteres, para no acumular el resto del
+ * archivo en memoria; el registro se devuelve tal cual y la lectura sigue en la
+ * línea siguiente. Los espacios alrededor de cada campo se eliminan.
+ */
+class LectorCsv {
+
+    static final int LONGITUD_MAXIMA_REGISTRO = 64 * 1024;
+
+    private final BufferedReader lector;
+    private long linea;
+    private long lineaInicio;
+
+    LectorCsv(BufferedReader lector) {
+        this.lector = lector;
+    }
+
+    /**
+     * Lee el siguiente registro, o null al final del archivo.
+     */
+    List<String> siguiente() throws IOException {
+        String texto = lector.readLine();
+        if (texto == null) {
+            return null;
+        }
+        lineaInicio = ++linea;
+
+        List<String> columnas = new ArrayList<>(2);
+        StringBuilder actual = new StringBuilder();
+        boolean entreComillas = false;
+        while (true) {
+            for (int i = 0; i < texto.length(); i++) {
+                char c = texto.charAt(i);
+                if (entreComillas) {
+                    if (c == '"' && i + 1 < texto.length() && texto.charAt(i + 1) == '"') {
+                        actual.append('"');
+                        i++;
+                    } else if (c == '"') {
+                        entreComillas = false;
+                    } else {
+                        actual.append(c);
+                    }
+                } else if (c == '"') {
+                    entreComillas = true;
+                } else if (c == ',') {
+                    columnas.add(actual.toString().trim());
+                    actual.setLength(0);
+                } else {
+                    actual.append(c);
+                }
+            }
+            if (!entreComillas || actual.length() > LONGITUD_MAXIMA_REGISTRO) {
+                break;
+            }
+            // Salto de línea dentro de un campo entre comillas: el registro sigue en la línea siguiente
+            texto = lector.readLine();
+            if (texto == null) {
+                break;
+            }
+            linea++;
+            actual.append('\n');
+        }
+        columnas.add(actual.toString().trim());
+        return columnas;
+    }
+
+    /**
+     * Número de la línea (desde 1) en la que empieza el último registro leído.
+     */
+    long lineaInicio() {
+        return lineaInicio;
+    }
+}
@@ -0,0 +1,154 @@
+package com.multipedidos.clientes.service;
+
+import com.multipedidos.clientes.sharding.ContextoShard;
+import com.multipedidos.clientes.sharding.EjecutorShards;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.support.JdbcUtils;
+import org.springframework.stereotype.Component;
+
+import java.sql.DatabaseMetaData;
+import java.sql.ResultSet;
+import java.util.List;
+
+/**
+ * Enlaza con el catálogo las líneas de pedido que aún no lo referencian: da de
+ * alta sus nombres en el catálogo y rellena {@code catalogo_producto_id}.
+ *
+ * Es opcional ({@code multipedidos.catalogo.migracion.habilitada}, desactivada por
+ * defecto) e idempotente: solo toca las líneas sin enlazar, así que puede volver a
+ * ejecutarse tras un despliegue progresivo para enlazar las líneas que escribieron
+ * las instancias de la versión anterior. La columna {@code nombre} no se elimina en
+ * esta versión: la siguiente deja de mapearla y la borra.
+ * Para despliegues con {@code ddl-auto: none} existe el script equivalente
+ * {@code db/migracion/V1__catalogo_productos.sql}. Se ejecuta antes que el resto
+ * de runners, con los shards ya preparados, y antes del calentamiento del pool.
+ *
+ * Antes de migrar, en MySQL, se asegura de que {@code catalogo_productos.nombre} use
+ * la colación binaria {@code utf8mb4_bin}: con la colación por defecto "cafe" y "Café"
+ * chocarían en la clave única y se fusionarían al migrar. El ALTER solo se ejecuta con
+ * la migración habilitada; sin ella solo se avisa si la colación no es binaria.
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE + 1)
+@RequiredArgsConstructor
+@Slf4j
+public class MigracionCatalogoProductos implements ApplicationRunner {
+
+    private static final String[] TABLAS = {"productos", "productos_archivados"};
+
+    private final JdbcTemplate jdbcTemplate;
+    private final EjecutorShards ejecutorShards;
+
+    @Value("${multipedidos.catalogo.migracion.habilitada:false}")
+    private boolean habilitada;
+
+    @Value("${multipedidos.catalogo.migracion.tamano-lote:5000}")
+    private int tamanoLote;
+
+    @Override
+    public void run(ApplicationArguments args) {
+        for (String shard : ejecutorShards.shards()) {
+            ejecutorShards.enShard(shard, () -> {
+                String colacion = colacionNoBinaria();
+                if (!habilitada) {
+                    if (colacion != null) {
+                        log.warn("catalogo_productos.nombre usa la colación {} en el shard {}: los nombres que solo "
+                                + "difieren en mayúsculas o acentos chocarán. Habilite "
+                                + "multipedidos.catalogo.migracion.habilitada o aplique V1__catalogo_productos.sql",
+                                colacion, shard);
+                    }
+                    return null;
+                }
+                if (colacion != null) {
+                    log.info("Cambiando catalogo_productos.nombre de {} a utf8mb4_bin en el shard {}", colacion, shard);
+                    jdbcTemplate.execute("ALTER TABLE catalogo_productos MODIFY nombre VARCHAR(255) "
+                            + "CHARACTER SET utf8mb4 COLLATE utf8mb4_bin NOT NULL");
+                }
+                for (String tabla : TABLAS) {
+                    if (tieneColumnaNombre(tabla)) {
+                        migrar(tabla);
+                    }
+                }
+                return null;
+            });
+        }
+    }
+
+    private void migrar(String tabla) {
+        log.info("Migrando nombres de producto de '{}' al catálogo en el shard {}", tabla, ContextoShard.actual());
+
+        // Sin DISTINCT: con la colación de la tabla de origen fusionaría las variantes de mayúsculas
+        // y acentos; los duplicados exactos los descarta la clave única binaria del catálogo
+        int altas = jdbcTemplate.update("INSERT IGNORE INTO catalogo_productos (nombre) "
+                + "SELECT t.nombre FROM " + tabla + " t WHERE t.nombre IS NOT NULL AND t.catalogo_producto_id IS NULL");
+
+        // Enlazar por rangos de ID para no bloquear la tabla entera en una sola sentencia.
+        // El máximo se vuelve a leer al llegar a él, para incluir las líneas escritas mientras tanto.
+        long enlazadas = 0;
+        Long minimo = jdbcTemplate.queryForObject("SELECT MIN(id) FROM " + tabla + " WHERE catalogo_producto_id IS NULL", Long.class);
+        if (minimo != null) {
+            long desde = minimo;
+            long maximo = maximoId(tabla);
+            while (desde <= maximo) {
+                enlazadas += jdbcTemplate.update("UPDATE " + tabla + " t SET catalogo_producto_id = "
+                        + "(SELECT c.id FROM catalogo_productos c WHERE c.nombre = t.nombre) "
+                        + "WHERE t.catalogo_producto_id IS NULL AND t.nombre IS NOT NULL AND t.id >= ? AND t.id < ?",
+                        desde, desde + tamanoLote);
+                desde += tamanoLote;
+                if (desde > maximo) {
+                    maximo = maximoId(tabla);
+                }
+            }
+        }
+
+        log.info("Migración de '{}' completada: {} productos nuevos en el catálogo, {} líneas enlazadas",
+                tabla, altas, enlazadas);
+    }
+
+    private long maximoId(String tabla) {
+        Long maximo = jdbcTemplate.queryForObject("SELECT MAX(id) FROM " + tabla, Long.class);
+        return maximo != null ? maximo : 0L;
+    }
+
+    /**
+     * En MySQL devuelve la colación de la columna de nombres del catálogo si no es binaria;
+     * null si lo es o en otras bases de datos (H2 ya compara los textos de forma exacta).
+     */
+    private String colacionNoBinaria() {
+        boolean esMySql = Boolean.TRUE.equals(jdbcTemplate.execute((ConnectionCallback<Boolean>) conexion ->
+                conexion.getMetaData().getDatabaseProductName().contains("MySQL")));
+        if (!esMySql) {
+            return null;
+        }
+        List<String> colaciones = jdbcTemplate.queryForList("SELECT COLLATION_NAME FROM information_schema.COLUMNS "
+                + "WHERE TABLE_SCHEMA = DATABASE() AND TABLE_NAME = 'catalogo_productos' AND COLUMN_NAME = 'nombre'",
+                String.class);
+        return colaciones.isEmpty() || colaciones.get(0).endsWith("_bin") ? null : colaciones.get(0);
+    }
+
+    private boolean tieneColumnaNombre(String tabla) {
+        return Boolean.TRUE.equals(jdbcTemplate.execute((ConnectionCallback<Boolean>) conexion -> {
+            DatabaseMetaData metaData = conexion.getMetaData();
+            // H2 guarda los identificadores en mayúsculas y MySQL tal cual se crearon
+            for (String[] nombres : new String[][]{{tabla, "nombre"}, {tabla.toUpperCase(), "NOMBRE"}}) {
+                ResultSet columnas = metaData.getColumns(conexion.getCatalog(), null, nombres[0], nombres[1]);
+                try {
+                    if (columnas.next()) {
+                        return true;
+                    }
+                } finally {
+                    JdbcUtils.closeResultSet(columnas);
+                }
+            }
+            return false;
+        }));
+    }
+}
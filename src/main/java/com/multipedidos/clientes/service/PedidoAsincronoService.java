@@ -0,0 +1,247 @@
+package com.multipedidos.clientes.service;
+
+import com.multipedidos.clientes.config.PedidosAsincronosProperties;
+import com.multipedidos.clientes.dto.PedidoInputDTO;
+import com.multipedidos.clientes.dto.SolicitudPedidoDTO;
+import com.multipedidos.clientes.dto.SolicitudPedidoDTO.EstadoSolicitud;
+import com.multipedidos.clientes.exception.ServicioSaturadoException;
+import com.multipedidos.clientes.exception.SolicitudNoEncontradaException;
+import com.multipedidos.clientes.model.Pedido;
+import com.multipedidos.clientes.model.Producto;
+import com.multipedidos.clientes.sharding.EjecutorShards;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+/**
+ * Servicio para la creación asíncrona de pedidos.
+ *
+ * Las solicitudes se validan en el hilo de la petición y se encolan en una
+ * cola acotada en memoria. Un grupo de escritores drena la cola en lotes y
+ * guarda cada lote en una sola transacción por shard, con un INSERT por lotes para
+ * los pedidos y otro para sus líneas. El estado de cada solicitud se conserva en
+ * memoria durante el tiempo de retención configurado.
+ *
+ * Los IDs de solicitud son UUID aleatorios, únicos entre instancias y reinicios.
+ * Como el estado solo existe en la instancia que aceptó la solicitud, con varias
+ * instancias el balanceador debe enrutar las consultas de estado de forma
+ * persistente (sticky) hacia ella; en otra instancia la solicitud responde 404.
+ * Si la instancia se reinicia, el estado de sus solicitudes también se pierde
+ * (responde 404), aunque los pedidos encolados se hayan guardado.
+ *
+ * Al detener el servicio se dejan de aceptar solicitudes y se guardan todas las
+ * ya encoladas antes de liberar la base de datos.
+ */
+@Service
+@Slf4j
+public class PedidoAsincronoService {
+
+    private final PedidoService pedidoService;
+    private final PedidosAsincronosProperties properties;
+    private final EjecutorShards ejecutorShards;
+    private final BlockingQueue<SolicitudEncolada> cola;
+    private final ConcurrentHashMap<UUID, Seguimiento> solicitudes = new ConcurrentHashMap<>();
+    private final ExecutorService escritores;
+    private volatile boolean activo = true;
+
+    public PedidoAsincronoService(PedidoService pedidoService, PedidosAsincronosProperties properties,
+                                  EjecutorShards ejecutorShards) {
+        this.pedidoService = pedidoService;
+        this.properties = properties;
+        this.ejecutorShards = ejecutorShards;
+        this.cola = new ArrayBlockingQueue<>(properties.getCapacidadCola());
+        AtomicInteger contador = new AtomicInteger();
+        this.escritores = Executors.newFixedThreadPool(properties.getEscritores(), tarea -> {
+            Thread hilo = new Thread(tarea, "escritor-pedidos-" + contador.incrementAndGet());
+            hilo.setDaemon(true);
+            return hilo;
+        });
+    }
+
+    @PostConstruct
+    void iniciarEscritores() {
+        for (int i = 0; i < properties.getEscritores(); i++) {
+            escritores.submit(this::drenarCola);
+        }
+    }
+
+    /**
+     * Deja de aceptar solicitudes y guarda todas las encoladas. Los escritores
+     * drenan la cola hasta vaciarla; lo que quede al terminar la espera (o lo
+     * encolado durante la parada) se guarda en este mismo hilo.
+     */
+    @PreDestroy
+    void detenerEscritores() throws InterruptedException {
+        activo = false;
+        escritores.shutdown();
+        if (!escritores.awaitTermination(properties.getEsperaParada().toMillis(), TimeUnit.MILLISECONDS)) {
+            log.warn("Los escritores no terminaron a tiempo; se guardan en la parada los {} pedidos pendientes",
+                    cola.size());
+        }
+        List<SolicitudEncolada> pendientes = new ArrayList<>(properties.getTamanoLote());
+        while (cola.drainTo(pendientes, properties.getTamanoLote()) > 0) {
+            guardarLote(pendientes);
+            pendientes.clear();
+        }
+    }
+
+    /**
+     * Valida el pedido y lo encola para su creación.
+     * Lanza ServicioSaturadoException si la cola está llena.
+     */
+    public SolicitudPedidoDTO encolar(PedidoInputDTO input) {
+        log.debug("Encolando pedido para cliente ID: {}", input.getClienteId());
+
+        Pedido pedido = pedidoService.construirPedido(input);
+        UUID id = UUID.randomUUID();
+        SolicitudPedidoDTO solicitud = SolicitudPedidoDTO.builder()
+                .id(id)
+                .estado(EstadoSolicitud.EN_COLA)
+                .build();
+
+        solicitudes.put(id, new Seguimiento(solicitud, System.nanoTime()));
+        SolicitudEncolada encolada = new SolicitudEncolada(id, pedido);
+        if (!activo || !cola.offer(encolada)) {
+            solicitudes.remove(id);
+            throw new ServicioSaturadoException("La cola de pedidos está llena, intente de nuevo más tarde", 1);
+        }
+        // Si la parada empezó durante el offer, solo se rechaza si nadie la ha tomado aún
+        if (!activo && cola.remove(encolada)) {
+            solicitudes.remove(id);
+            throw new ServicioSaturadoException("El servicio se está deteniendo, intente de nuevo más tarde", 1);
+        }
+        return solicitud;
+    }
+
+    /**
+     * Obtiene el estado de una solicitud de creación de pedido.
+     */
+    public SolicitudPedidoDTO obtenerSolicitud(UUID id) {
+        Seguimiento seguimiento = solicitudes.get(id);
+        if (seguimiento == null) {
+            throw new SolicitudNoEncontradaException(id);
+        }
+        return seguimiento.solicitud();
+    }
+
+    /**
+     * Elimina el estado de las solicitudes resueltas más antiguas que la retención configurada.
+     */
+    @Scheduled(fixedDelay = 60_000)
+    public void purgarSolicitudes() {
+        long limite = System.nanoTime() - properties.getRetencionSolicitudes().toNanos();
+        solicitudes.values().removeIf(s -> s.solicitud().getEstado() != EstadoSolicitud.EN_COLA
+                && s.actualizado() - limite < 0);
+    }
+
+    private void drenarCola() {
+        List<SolicitudEncolada> lote = new ArrayList<>(properties.getTamanoLote());
+        while (activo || !cola.isEmpty()) {
+            try {
+                SolicitudEncolada primera = cola.poll(200, TimeUnit.MILLISECONDS);
+                if (primera == null) {
+                    continue;
+                }
+                lote.add(primera);
+                cola.drainTo(lote, properties.getTamanoLote() - 1);
+                guardarLote(lote);
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (RuntimeException ex) {
+                log.error("Error inesperado en el escritor de pedidos", ex);
+            } finally {
+                lote.clear();
+            }
+        }
+    }
+
+    /**
+     * Guarda el lote agrupado por shard: cada transacción solo toca la base de datos de sus clientes.
+     */
+    private void guardarLote(List<SolicitudEncolada> lote) {
+        ejecutorShards.agrupar(lote, s -> ejecutorShards.shardDeCliente(s.pedido().getClienteId()))
+                .forEach((shard, grupo) -> ejecutorShards.enShard(shard, () -> {
+                    guardarLoteShard(grupo);
+                    return null;
+                }));
+    }
+
+    private void guardarLoteShard(List<SolicitudEncolada> lote) {
+        try {
+            List<Pedido> guardados = pedidoService.guardarLote(lote.stream()
+                    .map(SolicitudEncolada::pedido)
+                    .collect(Collectors.toList()));
+            for (int i = 0; i < lote.size(); i++) {
+                completar(lote.get(i).id(), guardados.get(i).getId());
+            }
+        } catch (RuntimeException ex) {
+            // Reintentar uno a uno para aislar los pedidos que fallan
+            log.warn("Falló el guardado del lote de {} pedidos, reintentando individualmente: {}",
+                    lote.size(), ex.getMessage());
+            for (SolicitudEncolada solicitud : lote) {
+                try {
+                    Pedido guardado = pedidoService.guardarLote(List.of(copiar(solicitud.pedido()))).get(0);
+                    completar(solicitud.id(), guardado.getId());
+                } catch (RuntimeException error) {
+                    log.error("No se pudo guardar el pedido de la solicitud {}", solicitud.id(), error);
+                    actualizar(solicitud.id(), SolicitudPedidoDTO.builder()
+                            .id(solicitud.id())
+                            .estado(EstadoSolicitud.FALLIDO)
+                            .mensaje("No se pudo guardar el pedido")
+                            .build());
+                }
+            }
+        }
+    }
+
+    private void completar(UUID solicitudId, Long pedidoId) {
+        actualizar(solicitudId, SolicitudPedidoDTO.builder()
+                .id(solicitudId)
+                .estado(EstadoSolicitud.COMPLETADO)
+                .pedidoId(pedidoId)
+                .build());
+    }
+
+    private void actualizar(UUID solicitudId, SolicitudPedidoDTO solicitud) {
+        solicitudes.put(solicitudId, new Seguimiento(solicitud, System.nanoTime()));
+    }
+
+    /**
+     * Copia un pedido sin identificadores, para reintentar tras un lote revertido.
+     */
+    private Pedido copiar(Pedido pedido) {
+        return Pedido.builder()
+                .clienteId(pedido.getClienteId())
+                .total(pedido.getTotal())
+                .estado(pedido.getEstado())
+                .productos(pedido.getProductos().stream()
+                        .map(p -> Producto.builder()
+                                .catalogo(p.getCatalogo())
+                                .nombre(p.getNombre())
+                                .precio(p.getPrecio())
+                                .build())
+                        .collect(Collectors.toList()))
+                .build();
+    }
+
+    private record SolicitudEncolada(UUID id, Pedido pedido) {
+    }
+
+    private record Seguimiento(SolicitudPedidoDTO solicitud, long actualizado) {
+    }
+}
@@ -1,21 +1,44 @@
 package com.multipedidos.clientes.service;
 
+import com.multipedidos.clientes.dto.LoteDTO;
 import com.multipedidos.clientes.dto.PedidoDTO;
 import com.multipedidos.clientes.dto.PedidoInputDTO;
 import com.multipedidos.clientes.dto.ProductoDTO;
+import com.multipedidos.clientes.model.CatalogoProducto;
 import com.multipedidos.clientes.model.Pedido;
+import com.multipedidos.clientes.model.PedidoArchivado;
 import com.multipedidos.clientes.model.Producto;
+import com.multipedidos.clientes.repository.PedidoArchivadoRepository;
 import com.multipedidos.clientes.repository.PedidoRepository;
+import com.multipedidos.clientes.repository.PedidoResumen;
+import com.multipedidos.clientes.sharding.EjecutorShards;
+import com.multipedidos.clientes.sharding.EnrutarPorCliente;
+import com.multipedidos.clientes.sharding.EnrutarPorPedido;
 import com.multipedidos.common.exceptions.DatosInvalidosException;
 import com.multipedidos.common.exceptions.RecursoNoEncontradoException;
 import com.multipedidos.common.utils.CalculadoraDescuentos;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+import org.springframework.jdbc.support.KeyHolder;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.math.BigDecimal;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 /**
@@ -27,16 +50,50 @@ import java.util.stream.Collectors;
 @Slf4j
 public class PedidoService {
 
+    static final String CAMPO_PRODUCTOS = "productos";
+    static final Set<String> CAMPOS_PEDIDO = Set.of("id", "clienteId", CAMPO_PRODUCTOS, "total");
+
+    private static final String INSERTAR_PEDIDO =
+            "INSERT INTO pedidos (cliente_id, total, fecha_pedido, estado) VALUES (?, ?, ?, ?)";
+    private static final String INSERTAR_LINEA =
+            "INSERT INTO productos (pedido_id, catalogo_producto_id, nombre, precio) VALUES (?, ?, ?, ?)";
+
     private final PedidoRepository pedidoRepository;
+    private final PedidoArchivadoRepository pedidoArchivadoRepository;
     private final ClienteService clienteService;
+    private final CargaCompartida<Long, List<PedidoDTO>> cargaPedidosPorCliente;
+    private final EstadisticasClienteService estadisticasClienteService;
+    private final CatalogoProductosService catalogoProductosService;
+    private final TransactionTemplate transactionTemplate;
+    private final EjecutorShards ejecutorShards;
+    private final JdbcTemplate jdbcTemplate;
 
     /**
      * Crea un nuevo pedido.
+     * Los productos se resuelven en el catálogo antes de abrir la transacción del
+     * pedido, para no retener dos conexiones a la vez al dar de alta productos nuevos.
      */
-    @Transactional
+    @EnrutarPorCliente("#input?.clienteId")
     public PedidoDTO crearPedido(PedidoInputDTO input) {
-        log.info("Creando nuevo pedido para cliente ID: {}", input.getClienteId());
+        log.debug("Creando nuevo pedido para cliente ID: {}", input.getClienteId());
+
+        Pedido pedido = construirPedido(input);
+        Pedido guardado = transactionTemplate.execute(status -> {
+            Pedido p = pedidoRepository.save(pedido);
+            estadisticasClienteService.registrarPedido(p);
+            return p;
+        });
+        log.info("Pedido creado con ID: {} - Total: {}", guardado.getId(), guardado.getTotal());
+
+        return mapearADTO(guardado);
+    }
 
+    /**
+     * Valida la entrada y construye el pedido con su total calculado, sin persistirlo.
+     * Los productos que aún no existen se dan de alta en el catálogo.
+     */
+    @EnrutarPorCliente("#input?.clienteId")
+    public Pedido construirPedido(PedidoInputDTO input) {
         // Verificar que el cliente existe
         if (!clienteService.existeCliente(input.getClienteId())) {
             throw new DatosInvalidosException("El cliente con ID " + input.getClienteId() + " no existe");
@@ -55,59 +112,279 @@ public class PedidoService {
         // Usar la librería común para calcular el total con descuentos e IVA
         BigDecimal totalFinal = CalculadoraDescuentos.calcularTotalFinal(subtotal);
 
-        // Convertir DTOs a entidades
+        // Convertir DTOs a entidades, referenciando el catálogo en lugar de repetir el nombre
+        Map<String, CatalogoProducto> catalogo = catalogoProductosService.resolver(input.getProductos().stream()
+                .map(ProductoDTO::getNombre)
+                .collect(Collectors.toSet()));
         List<Producto> productos = input.getProductos().stream()
                 .map(dto -> Producto.builder()
+                        .catalogo(catalogo.get(dto.getNombre()))
                         .nombre(dto.getNombre())
                         .precio(dto.getPrecio())
                         .build())
                 .collect(Collectors.toList());
 
         // Crear pedido
-        Pedido pedido = Pedido.builder()
+        return Pedido.builder()
                 .clienteId(input.getClienteId())
                 .productos(productos)
                 .total(totalFinal)
                 .estado(Pedido.EstadoPedido.PENDIENTE)
                 .build();
+    }
+
+    /**
+     * Guarda un lote de pedidos ya validados en una sola transacción.
+     * Todos los pedidos deben pertenecer al shard fijado por el llamante.
+     *
+     * Con IDs IDENTITY Hibernate inserta cada entidad por separado para leer su ID,
+     * así que el lote se escribe con dos lotes JDBC (pedidos y líneas); los IDs de
+     * los pedidos se leen de las claves generadas. Con {@code rewriteBatchedStatements}
+     * cada lote viaja como un único INSERT multi-fila.
+     */
+    @Transactional
+    public List<Pedido> guardarLote(List<Pedido> pedidos) {
+        LocalDateTime ahora = LocalDateTime.now();
+        KeyHolder claves = new GeneratedKeyHolder();
+        jdbcTemplate.batchUpdate(con -> con.prepareStatement(INSERTAR_PEDIDO, new String[]{"id"}),
+                new BatchPreparedStatementSetter() {
+                    @Override
+                    public void setValues(PreparedStatement ps, int i) throws SQLException {
+                        Pedido pedido = pedidos.get(i);
+                        ps.setLong(1, pedido.getClienteId());
+                        ps.setBigDecimal(2, pedido.getTotal());
+                        ps.setTimestamp(3, Timestamp.valueOf(ahora));
+                        ps.setString(4, pedido.getEstado().name());
+                    }
 
-        Pedido guardado = pedidoRepository.save(pedido);
-        log.info("Pedido creado con ID: {} - Total: {}", guardado.getId(), totalFinal);
+                    @Override
+                    public int getBatchSize() {
+                        return pedidos.size();
+                    }
+                }, claves);
 
-        return mapearADTO(guardado);
+        List<Map<String, Object>> ids = claves.getKeyList();
+        List<Object[]> lineas = new ArrayList<>();
+        for (int i = 0; i < pedidos.size(); i++) {
+            Pedido pedido = pedidos.get(i);
+            pedido.setId(((Number) ids.get(i).values().iterator().next()).longValue());
+            pedido.setFechaPedido(ahora);
+            for (Producto producto : pedido.getProductos()) {
+                lineas.add(new Object[]{pedido.getId(), producto.getCatalogo().getId(),
+                        producto.getNombre(), producto.getPrecio()});
+            }
+        }
+        jdbcTemplate.batchUpdate(INSERTAR_LINEA, lineas);
+
+        estadisticasClienteService.registrarPedidos(pedidos);
+        log.info("Lote de {} pedidos guardado", pedidos.size());
+        return pedidos;
     }
 
     /**
-     * Obtiene todos los pedidos.
+     * Cambia el estado de un pedido.
+     * COMPLETADO y CANCELADO son estados finales; al cancelar se descuenta el
+     * total del gasto acumulado del cliente.
      */
-    @Transactional(readOnly = true)
-    public List<PedidoDTO> listarPedidos() {
-        log.info("Listando todos los pedidos");
-        return pedidoRepository.findAll().stream()
-                .map(this::mapearADTO)
+    @EnrutarPorPedido("#id")
+    @Transactional
+    public PedidoDTO actualizarEstado(Long id, Pedido.EstadoPedido nuevoEstado) {
+        log.debug("Cambiando estado del pedido ID {} a {}", id, nuevoEstado);
+
+        Pedido pedido = pedidoRepository.findConBloqueoById(id)
+                .orElseThrow(() -> new RecursoNoEncontradoException("Pedido", id));
+
+        Pedido.EstadoPedido estadoActual = pedido.getEstado();
+        if (estadoActual == nuevoEstado) {
+            return mapearADTO(pedido);
+        }
+        if (estadoActual == Pedido.EstadoPedido.COMPLETADO || estadoActual == Pedido.EstadoPedido.CANCELADO) {
+            throw new DatosInvalidosException("El pedido " + id + " está " + estadoActual + " y no puede cambiar de estado");
+        }
+
+        pedido.setEstado(nuevoEstado);
+        Pedido actualizado = pedidoRepository.save(pedido);
+        if (nuevoEstado == Pedido.EstadoPedido.CANCELADO) {
+            estadisticasClienteService.registrarCancelacion(actualizado);
+        }
+        log.info("Pedido ID {} cambiado de {} a {}", id, estadoActual, nuevoEstado);
+
+        return mapearADTO(actualizado);
+    }
+
+    /**
+     * Obtiene todos los pedidos, consultando los shards en paralelo.
+     * Si no se solicitan los productos, se consulta una proyección sin cargarlos.
+     */
+    public List<PedidoDTO> listarPedidos(Set<String> campos) {
+        log.debug("Listando todos los pedidos");
+        Set<String> camposValidos = validarCampos(campos);
+        if (camposValidos != null && !camposValidos.contains(CAMPO_PRODUCTOS)) {
+            return ejecutorShards.consultarEnTodos(() -> pedidoRepository.findAllProjectedBy().stream()
+                            .map(r -> mapearResumen(r, camposValidos))
+                            .collect(Collectors.toList())).stream()
+                    .flatMap(List::stream)
+                    .collect(Collectors.toList());
+        }
+        return ejecutorShards.consultarEnTodos(() -> pedidoRepository.findAll().stream()
+                        .map(this::mapearADTO)
+                        .map(p -> filtrarCampos(p, camposValidos))
+                        .collect(Collectors.toList())).stream()
+                .flatMap(List::stream)
                 .collect(Collectors.toList());
     }
 
     /**
      * Obtiene un pedido por ID.
+     * Solo se consulta el archivo si se indica expresamente.
      */
+    @EnrutarPorPedido("#id")
     @Transactional(readOnly = true)
-    public PedidoDTO obtenerPedido(Long id) {
-        log.info("Buscando pedido con ID: {}", id);
-        Pedido pedido = pedidoRepository.findById(id)
-                .orElseThrow(() -> new RecursoNoEncontradoException("Pedido", id));
-        return mapearADTO(pedido);
+    public PedidoDTO obtenerPedido(Long id, boolean incluirArchivados) {
+        log.debug("Buscando pedido con ID: {}", id);
+        Optional<PedidoDTO> pedido = pedidoRepository.findById(id).map(this::mapearADTO);
+        if (pedido.isEmpty() && incluirArchivados) {
+            pedido = pedidoArchivadoRepository.findById(id).map(this::mapearADTO);
+        }
+        return pedido.orElseThrow(() -> new RecursoNoEncontradoException("Pedido", id));
+    }
+
+    /**
+     * Obtiene varios pedidos por ID con una única consulta por shard que incluye sus productos.
+     */
+    public LoteDTO<PedidoDTO> obtenerPedidos(List<Long> ids) {
+        Set<Long> idsUnicos = ClienteService.validarIds(ids);
+        log.debug("Buscando {} pedidos por ID", idsUnicos.size());
+
+        // Se mapea dentro de la transacción de cada shard, donde se resuelven los nombres del catálogo
+        Map<Long, PedidoDTO> porId = ejecutorShards.consultarPorShard(idsUnicos, ejecutorShards::shardDePedido,
+                        grupo -> pedidoRepository.findAllConProductosByIdIn(grupo).stream()
+                                .map(this::mapearADTO)
+                                .collect(Collectors.toList())).stream()
+                .flatMap(List::stream)
+                .collect(Collectors.toMap(PedidoDTO::getId, Function.identity()));
+
+        List<PedidoDTO> encontrados = new ArrayList<>(porId.size());
+        List<Long> noEncontrados = new ArrayList<>();
+        for (Long id : idsUnicos) {
+            PedidoDTO pedido = porId.get(id);
+            if (pedido != null) {
+                encontrados.add(pedido);
+            } else {
+                noEncontrados.add(id);
+            }
+        }
+        return LoteDTO.<PedidoDTO>builder()
+                .encontrados(encontrados)
+                .noEncontrados(noEncontrados)
+                .build();
     }
 
     /**
      * Obtiene pedidos de un cliente específico.
+     * Las peticiones concurrentes por el mismo cliente comparten una única carga
+     * de los pedidos activos; los archivados solo se consultan si se indica.
+     * Los nombres del catálogo se resuelven dentro de la transacción, donde aún
+     * pueden inicializarse las referencias perezosas.
+     * Si no se solicitan los productos, se consulta una proyección sin cargarlos.
      */
+    @EnrutarPorCliente("#clienteId")
     @Transactional(readOnly = true)
-    public List<PedidoDTO> listarPedidosPorCliente(Long clienteId) {
-        log.info("Listando pedidos del cliente ID: {}", clienteId);
-        return pedidoRepository.findByClienteId(clienteId).stream()
+    public List<PedidoDTO> listarPedidosPorCliente(Long clienteId, boolean incluirArchivados, Set<String> campos) {
+        log.debug("Listando pedidos del cliente ID: {}", clienteId);
+        Set<String> camposValidos = validarCampos(campos);
+        if (camposValidos != null && !camposValidos.contains(CAMPO_PRODUCTOS)) {
+            return listarResumenesPorCliente(clienteId, incluirArchivados, camposValidos);
+        }
+        if (camposValidos != null) {
+            return listarPedidosPorCliente(clienteId, incluirArchivados, null).stream()
+                    .map(p -> filtrarCampos(p, camposValidos))
+                    .collect(Collectors.toList());
+        }
+
+        List<PedidoDTO> activos = cargaPedidosPorCliente.cargar(clienteId, () -> pedidoRepository.findByClienteId(clienteId).stream()
                 .map(this::mapearADTO)
+                .collect(Collectors.toList()));
+        if (!incluirArchivados) {
+            return activos;
+        }
+
+        List<PedidoDTO> todos = new ArrayList<>(activos);
+        pedidoArchivadoRepository.findByClienteId(clienteId).stream()
+                .map(this::mapearADTO)
+                .forEach(todos::add);
+        return todos;
+    }
+
+    private List<PedidoDTO> listarResumenesPorCliente(Long clienteId, boolean incluirArchivados, Set<String> campos) {
+        List<PedidoDTO> pedidos = pedidoRepository.findResumenByClienteId(clienteId).stream()
+                .map(r -> mapearResumen(r, campos))
                 .collect(Collectors.toList());
+        if (incluirArchivados) {
+            pedidoArchivadoRepository.findResumenByClienteId(clienteId).stream()
+                    .map(r -> mapearResumen(r, campos))
+                    .forEach(pedidos::add);
+        }
+        return pedidos;
+    }
+
+    /**
+     * Valida los campos solicitados con fields=; devuelve null si se piden todos.
+     * Se ignoran los espacios alrededor de cada campo y los elementos vacíos
+     * ("fields=id, total" equivale a "fields=id,total").
+     */
+    private Set<String> validarCampos(Set<String> campos) {
+        if (campos == null) {
+            return null;
+        }
+        Set<String> normalizados = campos.stream()
+                .filter(Objects::nonNull)
+                .map(String::trim)
+                .filter(campo -> !campo.isEmpty())
+                .collect(Collectors.toSet());
+        if (normalizados.isEmpty()) {
+            return null;
+        }
+        for (String campo : normalizados) {
+            if (!CAMPOS_PEDIDO.contains(campo)) {
+                throw new DatosInvalidosException("Campo desconocido: " + campo + ". Campos válidos: " + CAMPOS_PEDIDO);
+            }
+        }
+        return normalizados;
+    }
+
+    /**
+     * Deja en el DTO solo los campos solicitados.
+     */
+    private PedidoDTO filtrarCampos(PedidoDTO pedido, Set<String> campos) {
+        if (campos == null) {
+            return pedido;
+        }
+        return PedidoDTO.builder()
+                .id(campos.contains("id") ? pedido.getId() : null)
+                .clienteId(campos.contains("clienteId") ? pedido.getClienteId() : null)
+                .productos(campos.contains(CAMPO_PRODUCTOS) ? pedido.getProductos() : null)
+                .total(campos.contains("total") ? pedido.getTotal() : null)
+                .build();
+    }
+
+    /**
+     * Mapea una proyección de pedido a DTO con los campos solicitados.
+     */
+    private PedidoDTO mapearResumen(PedidoResumen resumen, Set<String> campos) {
+        return PedidoDTO.builder()
+                .id(campos.contains("id") ? resumen.getId() : null)
+                .clienteId(campos.contains("clienteId") ? resumen.getClienteId() : null)
+                .total(campos.contains("total") ? resumen.getTotal() : null)
+                .build();
+    }
+
+    /**
+     * Nombre de una línea: el del catálogo o, si la escribió una instancia de la
+     * versión anterior y aún no se ha enlazado, el de su propia columna.
+     */
+    private String nombreProducto(CatalogoProducto catalogo, String nombreLinea) {
+        return catalogo != null ? catalogoProductosService.nombre(catalogo) : nombreLinea;
     }
 
     /**
@@ -116,7 +393,7 @@ public class PedidoService {
     private PedidoDTO mapearADTO(Pedido pedido) {
         List<ProductoDTO> productosDTO = pedido.getProductos().stream()
                 .map(p -> ProductoDTO.builder()
-                        .nombre(p.getNombre())
+                        .nombre(nombreProducto(p.getCatalogo(), p.getNombre()))
                         .precio(p.getPrecio())
                         .build())
                 .collect(Collectors.toList());
@@ -128,5 +405,23 @@ public class PedidoService {
                 .total(pedido.getTotal())
                 .build();
     }
-}
 
+    /**
+     * Mapea una entidad PedidoArchivado a DTO.
+     */
+    private PedidoDTO mapearADTO(PedidoArchivado pedido) {
+        List<ProductoDTO> productosDTO = pedido.getProductos().stream()
+                .map(p -> ProductoDTO.builder()
+                        .nombre(nombreProducto(p.getCatalogo(), p.getNombre()))
+                        .precio(p.getPrecio())
+                        .build())
+                .collect(Collectors.toList());
+
+        return PedidoDTO.builder()
+                .id(pedido.getId())
+                .clienteId(pedido.getClienteId())
+                .productos(productosDTO)
+                .total(pedido.getTotal())
+                .build();
+    }
+}
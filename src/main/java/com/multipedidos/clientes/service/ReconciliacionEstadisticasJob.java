@@ -0,0 +1,71 @@
+package com.multipedidos.clientes.service;
+
+import com.multipedidos.clientes.repository.ClienteRepository;
+import com.multipedidos.clientes.sharding.ContextoShard;
+import com.multipedidos.clientes.sharding.EjecutorShards;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * Tarea programada que detecta y corrige desviaciones entre las estadísticas
+ * de clientes y sus pedidos reales. Recorre los clientes de cada shard en lotes por ID.
+ * Con varias instancias solo una la ejecuta a la vez (ver {@link BloqueoTareas}).
+ */
+@Component
+@Lazy(false)
+@RequiredArgsConstructor
+@Slf4j
+public class ReconciliacionEstadisticasJob {
+
+    private final ClienteRepository clienteRepository;
+    private final EstadisticasClienteService estadisticasClienteService;
+    private final EjecutorShards ejecutorShards;
+    private final BloqueoTareas bloqueoTareas;
+
+    @Value("${multipedidos.estadisticas.tamano-lote-reconciliacion:500}")
+    private int tamanoLote;
+
+    @Scheduled(cron = "${multipedidos.estadisticas.cron-reconciliacion:0 30 3 * * *}")
+    public void reconciliar() {
+        bloqueoTareas.ejecutar("reconciliacion-estadisticas", this::reconciliarShards);
+    }
+
+    private void reconciliarShards() {
+        log.info("Iniciando reconciliación de estadísticas de clientes");
+        for (String shard : ejecutorShards.shards()) {
+            ejecutorShards.enShard(shard, () -> {
+                reconciliarShard();
+                return null;
+            });
+        }
+    }
+
+    private void reconciliarShard() {
+        long desde = 0L;
+        int revisados = 0;
+        int corregidos = 0;
+        List<Long> ids;
+        do {
+            ids = clienteRepository.findIdsDesde(desde, PageRequest.of(0, tamanoLote));
+            if (ids.isEmpty()) {
+                break;
+            }
+            try {
+                corregidos += estadisticasClienteService.reconciliarLote(ids);
+            } catch (RuntimeException ex) {
+                log.warn("No se pudo reconciliar el lote de clientes desde ID {}: {}", desde, ex.getMessage());
+            }
+            revisados += ids.size();
+            desde = ids.get(ids.size() - 1);
+        } while (ids.size() == tamanoLote);
+        log.info("Reconciliación finalizada en el shard {}: {} clientes revisados, {} corregidos",
+                ContextoShard.actual(), revisados, corregidos);
+    }
+}
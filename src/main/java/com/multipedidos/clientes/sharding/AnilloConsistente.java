@@ -0,0 +1,58 @@
+package com.multipedidos.clientes.sharding;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.zip.CRC32;
+
+/**
+ * Anillo de hash consistente con nodos virtuales.
+ *
+ * Cada shard ocupa varios puntos del anillo y una clave pertenece al primer
+ * punto igual o posterior a su hash. Al añadir un shard solo cambian de dueño
+ * las claves que caen en sus nuevos puntos (aproximadamente 1/N).
+ *
+ * El anillo no reequilibra: los clientes que cambian de dueño siguen en su shard
+ * anterior y dejarían de encontrarse. Por eso {@link InicializadorShards} impide
+ * arrancar con otra lista de shards u otros nodos virtuales si ya hay clientes.
+ */
+public class AnilloConsistente {
+
+    private final TreeMap<Long, String> anillo = new TreeMap<>();
+
+    public AnilloConsistente(List<String> shards, int nodosVirtuales) {
+        if (shards.isEmpty()) {
+            throw new IllegalArgumentException("El anillo necesita al menos un shard");
+        }
+        for (String shard : shards) {
+            for (int i = 0; i < nodosVirtuales; i++) {
+                anillo.put(mezclar(crc(shard + "#" + i)), shard);
+            }
+        }
+    }
+
+    /**
+     * Shard propietario de la clave.
+     */
+    public String shardDe(long clave) {
+        Map.Entry<Long, String> entrada = anillo.ceilingEntry(mezclar(clave));
+        return entrada != null ? entrada.getValue() : anillo.firstEntry().getValue();
+    }
+
+    private static long crc(String texto) {
+        CRC32 crc = new CRC32();
+        crc.update(texto.getBytes(StandardCharsets.UTF_8));
+        return crc.getValue();
+    }
+
+    /**
+     * Finalizador de SplitMix64: reparte uniformemente claves consecutivas como los IDs.
+     */
+    private static long mezclar(long valor) {
+        long z = valor + 0x9E3779B97F4A7C15L;
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+}
@@ -0,0 +1,77 @@
+package com.multipedidos.clientes.sharding;
+
+import com.multipedidos.clientes.config.ShardingProperties;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Asigna los IDs de cliente en modo fragmentado.
+ *
+ * El shard de un cliente se calcula a partir de su ID, así que el ID debe
+ * conocerse antes de insertarlo. Los IDs salen de una secuencia global en el
+ * primer shard ({@code secuencia_clientes}); cada instancia reserva bloques de
+ * {@code multipedidos.sharding.tamano-bloque-ids} para no consultarla en cada alta.
+ * Sin fragmentación devuelve null y los IDs los genera la columna IDENTITY.
+ */
+@Component
+@Slf4j
+public class AsignadorIdsClientes {
+
+    static final String TABLA_SECUENCIA = "secuencia_clientes";
+
+    private final EjecutorShards ejecutorShards;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transaccionNueva;
+    private final int tamanoBloque;
+    private long siguiente;
+    private long limite;
+
+    public AsignadorIdsClientes(EjecutorShards ejecutorShards, JdbcTemplate jdbcTemplate,
+                                PlatformTransactionManager transactionManager, ShardingProperties properties) {
+        this.ejecutorShards = ejecutorShards;
+        this.jdbcTemplate = jdbcTemplate;
+        this.transaccionNueva = new TransactionTemplate(transactionManager);
+        this.transaccionNueva.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.tamanoBloque = properties.getTamanoBloqueIds();
+    }
+
+    /**
+     * Reserva un ID de cliente, o null si no hay fragmentación.
+     */
+    public Long reservar() {
+        long[] ids = reservar(1);
+        return ids != null ? ids[0] : null;
+    }
+
+    /**
+     * Reserva varios IDs de cliente, o null si no hay fragmentación.
+     */
+    public synchronized long[] reservar(int cantidad) {
+        if (!ejecutorShards.fragmentado()) {
+            return null;
+        }
+        long[] ids = new long[cantidad];
+        for (int i = 0; i < cantidad; i++) {
+            if (siguiente >= limite) {
+                reservarBloque(Math.max(tamanoBloque, cantidad - i));
+            }
+            ids[i] = siguiente++;
+        }
+        return ids;
+    }
+
+    private void reservarBloque(int tamano) {
+        Long fin = ejecutorShards.enShard(ejecutorShards.shards().get(0), () -> transaccionNueva.execute(status -> {
+            // El UPDATE bloquea la fila hasta el commit, así que el SELECT ve nuestro propio incremento
+            jdbcTemplate.update("UPDATE " + TABLA_SECUENCIA + " SET siguiente = siguiente + ? WHERE id = 1", tamano);
+            return jdbcTemplate.queryForObject("SELECT siguiente FROM " + TABLA_SECUENCIA + " WHERE id = 1", Long.class);
+        }));
+        limite = fin;
+        siguiente = fin - tamano;
+        log.debug("Reservado el bloque de IDs de cliente [{}, {})", siguiente, limite);
+    }
+}
@@ -0,0 +1,41 @@
+package com.multipedidos.clientes.sharding;
+
+import java.text.Collator;
+import java.util.Comparator;
+import java.util.Locale;
+
+/**
+ * Orden de las columnas de texto en las bases de los shards.
+ *
+ * Al mezclar resultados de varios shards hay que ordenar igual que cada shard y que
+ * las comparaciones del cursor en SQL; si no, se saltarían o repetirían filas entre
+ * páginas. Por eso la colación se configura junto con los shards en lugar de suponerla.
+ */
+public enum ColacionShards {
+
+    /**
+     * {@code utf8mb4_0900_ai_ci}, la colación por defecto de MySQL 8: algoritmo de
+     * colación Unicode a nivel primario, que no distingue mayúsculas ni acentos.
+     */
+    UNICODE {
+        @Override
+        public Comparator<String> comparador() {
+            Collator colacion = Collator.getInstance(Locale.ROOT);
+            colacion.setStrength(Collator.PRIMARY);
+            return colacion::compare;
+        }
+    },
+
+    /**
+     * Orden binario por unidades UTF-16 ({@link String#compareTo}), el de H2 sin
+     * {@code COLLATION}, incluso en modo MySQL.
+     */
+    BINARIA {
+        @Override
+        public Comparator<String> comparador() {
+            return Comparator.naturalOrder();
+        }
+    };
+
+    public abstract Comparator<String> comparador();
+}
@@ -0,0 +1,36 @@
+package com.multipedidos.clientes.sharding;
+
+/**
+ * Shard del hilo actual, usado por {@link DataSourceEnrutado} para elegir la base de datos.
+ *
+ * Debe fijarse antes de abrir la transacción: la conexión se obtiene al comenzarla
+ * y se mantiene hasta el commit.
+ */
+public final class ContextoShard {
+
+    private static final ThreadLocal<String> ACTUAL = new ThreadLocal<>();
+
+    private ContextoShard() {
+    }
+
+    public static String actual() {
+        return ACTUAL.get();
+    }
+
+    /**
+     * Fija el shard del hilo y devuelve el anterior, para restaurarlo con {@link #restaurar(String)}.
+     */
+    public static String establecer(String shard) {
+        String anterior = ACTUAL.get();
+        ACTUAL.set(shard);
+        return anterior;
+    }
+
+    public static void restaurar(String anterior) {
+        if (anterior == null) {
+            ACTUAL.remove();
+        } else {
+            ACTUAL.set(anterior);
+        }
+    }
+}
@@ -0,0 +1,37 @@
+package com.multipedidos.clientes.sharding;
+
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+
+import javax.sql.DataSource;
+import java.util.Collection;
+
+/**
+ * DataSource que entrega conexiones del shard fijado en {@link ContextoShard}.
+ * Sin shard en el contexto (arranque de Hibernate, tareas globales) usa el primero.
+ */
+public class DataSourceEnrutado extends AbstractRoutingDataSource implements AutoCloseable {
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        return ContextoShard.actual();
+    }
+
+    /**
+     * Pools de todos los shards, para métricas y control de admisión.
+     */
+    public Collection<DataSource> getDataSourcesShards() {
+        return getResolvedDataSources().values();
+    }
+
+    /**
+     * Cierra los pools de los shards al detener el contexto.
+     */
+    @Override
+    public void close() throws Exception {
+        for (DataSource dataSource : getDataSourcesShards()) {
+            if (dataSource instanceof AutoCloseable pool) {
+                pool.close();
+            }
+        }
+    }
+}
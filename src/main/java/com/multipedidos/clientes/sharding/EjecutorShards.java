@@ -0,0 +1,187 @@
+package com.multipedidos.clientes.sharding;
+
+import com.multipedidos.clientes.config.ShardingProperties;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Punto único para decidir en qué shard se ejecuta cada operación.
+ *
+ * Sin fragmentación existe un único shard ("principal") y todo se ejecuta en el
+ * hilo llamante, de modo que los servicios usan el mismo código en ambos modos.
+ * Con fragmentación, los clientes se reparten por hash consistente de su ID y
+ * los pedidos viven en el shard de su cliente; el índice de ese shard queda
+ * codificado en el ID del pedido (bloques de {@value #BLOQUE_IDS_PEDIDO}).
+ */
+@Component
+@Slf4j
+public class EjecutorShards {
+
+    public static final String SHARD_UNICO = "principal";
+    public static final long BLOQUE_IDS_PEDIDO = 1_000_000_000_000L;
+
+    private final List<String> shards;
+    private final AnilloConsistente anillo;
+    private final Comparator<String> colacion;
+    private final TransactionTemplate transaccionLectura;
+    private final ExecutorService consultas;
+
+    public EjecutorShards(ShardingProperties properties, PlatformTransactionManager transactionManager) {
+        this.shards = properties.isHabilitado()
+                ? properties.getShards().stream().map(ShardingProperties.Shard::getNombre).toList()
+                : List.of(SHARD_UNICO);
+        this.anillo = new AnilloConsistente(shards, properties.getNodosVirtuales());
+        this.colacion = properties.getColacion().comparador();
+        this.transaccionLectura = new TransactionTemplate(transactionManager);
+        this.transaccionLectura.setReadOnly(true);
+
+        if (shards.size() > 1) {
+            AtomicInteger contador = new AtomicInteger();
+            this.consultas = Executors.newFixedThreadPool(properties.getHilosConsulta(), r -> {
+                Thread hilo = new Thread(r, "consulta-shards-" + contador.incrementAndGet());
+                hilo.setDaemon(true);
+                return hilo;
+            });
+        } else {
+            this.consultas = null;
+        }
+    }
+
+    @PreDestroy
+    void detener() {
+        if (consultas != null) {
+            consultas.shutdown();
+        }
+    }
+
+    public List<String> shards() {
+        return shards;
+    }
+
+    public boolean fragmentado() {
+        return shards.size() > 1;
+    }
+
+    /**
+     * Orden de los textos en los shards, para mezclar resultados de varios de ellos.
+     */
+    public Comparator<String> colacion() {
+        return colacion;
+    }
+
+    public String shardDeCliente(Long clienteId) {
+        return shards.size() == 1 ? shards.get(0) : anillo.shardDe(clienteId);
+    }
+
+    /**
+     * Shard codificado en un ID de pedido. Los IDs fuera de rango van al primero,
+     * donde la búsqueda simplemente no los encontrará.
+     */
+    public String shardDePedido(Long pedidoId) {
+        long indice = pedidoId / BLOQUE_IDS_PEDIDO;
+        return indice >= 0 && indice < shards.size() ? shards.get((int) indice) : shards.get(0);
+    }
+
+    /**
+     * Ejecuta la acción con el shard fijado en el contexto del hilo.
+     */
+    public <T> T enShard(String shard, Supplier<T> accion) {
+        String anterior = ContextoShard.establecer(shard);
+        try {
+            return accion.get();
+        } finally {
+            ContextoShard.restaurar(anterior);
+        }
+    }
+
+    /**
+     * Ejecuta la consulta en todos los shards, cada uno en su propia transacción de
+     * solo lectura, y devuelve los resultados en el orden de los shards.
+     * Debe llamarse fuera de una transacción: el primer shard se consulta en el hilo
+     * llamante y se uniría a ella.
+     */
+    public <T> List<T> consultarEnTodos(Supplier<T> consulta) {
+        Map<String, Supplier<T>> porShard = new LinkedHashMap<>();
+        shards.forEach(shard -> porShard.put(shard, consulta));
+        return consultar(porShard);
+    }
+
+    /**
+     * Agrupa las claves por shard y ejecuta la consulta de cada grupo en paralelo.
+     */
+    public <K, T> List<T> consultarPorShard(Collection<K> claves, Function<K, String> shardDe,
+                                            Function<List<K>, T> consulta) {
+        Map<String, List<K>> grupos = agrupar(claves, shardDe);
+        Map<String, Supplier<T>> porShard = new LinkedHashMap<>();
+        grupos.forEach((shard, grupo) -> porShard.put(shard, () -> consulta.apply(grupo)));
+        return consultar(porShard);
+    }
+
+    /**
+     * Agrupa las claves por shard conservando su orden dentro de cada grupo.
+     */
+    public <K> Map<String, List<K>> agrupar(Collection<K> claves, Function<K, String> shardDe) {
+        Map<String, List<K>> grupos = new LinkedHashMap<>();
+        for (K clave : claves) {
+            grupos.computeIfAbsent(shardDe.apply(clave), s -> new ArrayList<>()).add(clave);
+        }
+        return grupos;
+    }
+
+    private <T> List<T> consultar(Map<String, Supplier<T>> porShard) {
+        List<Map.Entry<String, Supplier<T>>> tareas = new ArrayList<>(porShard.entrySet());
+        if (tareas.size() == 1 || consultas == null) {
+            List<T> resultados = new ArrayList<>(tareas.size());
+            tareas.forEach(t -> resultados.add(leerEn(t.getKey(), t.getValue())));
+            return resultados;
+        }
+
+        // El primer shard se consulta en el hilo llamante mientras el resto avanza en paralelo
+        List<CompletableFuture<T>> futuros = new ArrayList<>(tareas.size() - 1);
+        for (Map.Entry<String, Supplier<T>> tarea : tareas.subList(1, tareas.size())) {
+            futuros.add(CompletableFuture.supplyAsync(() -> leerEn(tarea.getKey(), tarea.getValue()), consultas));
+        }
+        List<T> resultados = new ArrayList<>(tareas.size());
+        resultados.add(leerEn(tareas.get(0).getKey(), tareas.get(0).getValue()));
+        for (CompletableFuture<T> futuro : futuros) {
+            resultados.add(esperar(futuro));
+        }
+        return resultados;
+    }
+
+    private <T> T leerEn(String shard, Supplier<T> consulta) {
+        return enShard(shard, () -> transaccionLectura.execute(status -> consulta.get()));
+    }
+
+    private <T> T esperar(CompletableFuture<T> futuro) {
+        try {
+            return futuro.join();
+        } catch (CompletionException ex) {
+            Throwable causa = ex.getCause();
+            if (causa instanceof RuntimeException runtime) {
+                throw runtime;
+            }
+            if (causa instanceof Error error) {
+                throw error;
+            }
+            throw ex;
+        }
+    }
+}
@@ -0,0 +1,72 @@
+package com.multipedidos.clientes.sharding;
+
+import lombok.RequiredArgsConstructor;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.aspectj.lang.reflect.MethodSignature;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.expression.MethodBasedEvaluationContext;
+import org.springframework.core.DefaultParameterNameDiscoverer;
+import org.springframework.core.Ordered;
+import org.springframework.core.ParameterNameDiscoverer;
+import org.springframework.core.annotation.Order;
+import org.springframework.expression.Expression;
+import org.springframework.expression.spel.standard.SpelExpressionParser;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Fija el shard de los métodos anotados con {@link EnrutarPorCliente} o
+ * {@link EnrutarPorPedido} antes de que se abra su transacción.
+ * Se ordena justo después de {@code EventosJfrAspect} y antes del advice transaccional
+ * (que tiene el orden más bajo).
+ *
+ * Si la expresión da null se mantiene el shard actual y la validación del
+ * servicio decide qué responder.
+ */
+@Aspect
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE + 1)
+@ConditionalOnProperty(name = "multipedidos.sharding.habilitado", havingValue = "true")
+@RequiredArgsConstructor
+public class EnrutadoShardAspect {
+
+    private final EjecutorShards ejecutorShards;
+    private final SpelExpressionParser parser = new SpelExpressionParser();
+    private final ParameterNameDiscoverer nombresParametros = new DefaultParameterNameDiscoverer();
+    private final Map<String, Expression> expresiones = new ConcurrentHashMap<>();
+
+    @Around("@annotation(enrutar)")
+    public Object porCliente(ProceedingJoinPoint jp, EnrutarPorCliente enrutar) throws Throwable {
+        Long clienteId = evaluar(jp, enrutar.value());
+        return enShard(clienteId != null ? ejecutorShards.shardDeCliente(clienteId) : null, jp);
+    }
+
+    @Around("@annotation(enrutar)")
+    public Object porPedido(ProceedingJoinPoint jp, EnrutarPorPedido enrutar) throws Throwable {
+        Long pedidoId = evaluar(jp, enrutar.value());
+        return enShard(pedidoId != null ? ejecutorShards.shardDePedido(pedidoId) : null, jp);
+    }
+
+    private Object enShard(String shard, ProceedingJoinPoint jp) throws Throwable {
+        if (shard == null) {
+            return jp.proceed();
+        }
+        String anterior = ContextoShard.establecer(shard);
+        try {
+            return jp.proceed();
+        } finally {
+            ContextoShard.restaurar(anterior);
+        }
+    }
+
+    private Long evaluar(ProceedingJoinPoint jp, String expresion) {
+        MethodSignature firma = (MethodSignature) jp.getSignature();
+        MethodBasedEvaluationContext contexto = new MethodBasedEvaluationContext(
+                jp.getTarget(), firma.getMethod(), jp.getArgs(), nombresParametros);
+        return expresiones.computeIfAbsent(expresion, parser::parseExpression).getValue(contexto, Long.class);
+    }
+}
@@ -0,0 +1,20 @@
+package com.multipedidos.clientes.sharding;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Ejecuta el método en el shard codificado en el ID de pedido indicado por la expresión SpEL
+ * (por ejemplo {@code "#id"}).
+ * Se aplica antes que {@code @Transactional}, de modo que la transacción se abre en ese shard.
+ */
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+@Documented
+public @interface EnrutarPorPedido {
+
+    String value();
+}
@@ -0,0 +1,73 @@
+package com.multipedidos.clientes.sharding;
+
+import org.hibernate.boot.Metadata;
+import org.hibernate.boot.spi.BootstrapContext;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.integrator.spi.Integrator;
+import org.hibernate.jpa.boot.internal.EntityManagerFactoryBuilderImpl;
+import org.hibernate.jpa.boot.spi.IntegratorProvider;
+import org.hibernate.service.spi.SessionFactoryServiceRegistry;
+import org.hibernate.tool.schema.spi.DelayedDropAction;
+import org.hibernate.tool.schema.spi.SchemaManagementToolCoordinator;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Gestión del esquema de los shards con la herramienta de esquema de Hibernate.
+ *
+ * Hibernate solo aplica {@code ddl-auto} al DataSource por defecto, el primer shard.
+ * Este integrador guarda el modelo de mapeo al crear la factoría de sesiones para
+ * que {@link InicializadorShards} aplique la misma acción (create, create-drop,
+ * update o validate) en cada uno de los demás, dentro de su contexto de shard.
+ */
+@Component
+@ConditionalOnProperty(name = "multipedidos.sharding.habilitado", havingValue = "true")
+public class EsquemaShards implements HibernatePropertiesCustomizer, Integrator {
+
+    private volatile Metadata metadata;
+    private volatile SessionFactoryImplementor sessionFactory;
+
+    @Override
+    public void customize(Map<String, Object> propiedades) {
+        propiedades.put(EntityManagerFactoryBuilderImpl.INTEGRATOR_PROVIDER, (IntegratorProvider) () -> List.of(this));
+    }
+
+    @Override
+    public void integrate(Metadata metadata, BootstrapContext bootstrapContext, SessionFactoryImplementor sessionFactory) {
+        this.metadata = metadata;
+        this.sessionFactory = sessionFactory;
+    }
+
+    @Override
+    public void disintegrate(SessionFactoryImplementor sessionFactory, SessionFactoryServiceRegistry serviceRegistry) {
+        this.metadata = null;
+        this.sessionFactory = null;
+    }
+
+    /**
+     * Aplica la acción de esquema configurada al shard del contexto actual.
+     * Devuelve el borrado pendiente de {@code create-drop}, o null con otra acción.
+     */
+    DelayedDropAction aplicar() {
+        if (metadata == null) {
+            throw new IllegalStateException("La factoría de sesiones de Hibernate aún no está creada");
+        }
+        DelayedDropAction[] borrado = new DelayedDropAction[1];
+        SchemaManagementToolCoordinator.process(metadata, sessionFactory.getServiceRegistry(),
+                sessionFactory.getProperties(), accion -> borrado[0] = accion);
+        return borrado[0];
+    }
+
+    /**
+     * Ejecuta un borrado de {@code create-drop} en el shard del contexto actual.
+     */
+    void borrar(DelayedDropAction borrado) {
+        if (sessionFactory != null) {
+            borrado.perform(sessionFactory.getServiceRegistry());
+        }
+    }
+}
@@ -0,0 +1,208 @@
+package com.multipedidos.clientes.sharding;
+
+import com.multipedidos.clientes.config.ShardingProperties;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.tool.schema.spi.DelayedDropAction;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.IntStream;
+
+/**
+ * Prepara los shards al arrancar en modo fragmentado, una vez creados los singletons
+ * y antes de que arranque el servidor web, así que no llegan peticiones a shards a
+ * medio preparar:
+ * <ul>
+ *   <li>Aplica a cada shard la acción de {@code ddl-auto} con {@link EsquemaShards}.
+ *       Hibernate solo gestiona el primero (el DataSource por defecto); con
+ *       {@code update} o {@code validate} todos los shards migran o se validan igual,
+ *       y con {@code create-drop} se borran al cerrar el contexto.</li>
+ *   <li>Hace empezar la columna IDENTITY de {@code pedidos} de cada shard en su bloque
+ *       ({@code indice * BLOQUE_IDS_PEDIDO}), para que el ID indique el shard.</li>
+ *   <li>Comprueba que la lista de shards y los nodos virtuales son los mismos con los que
+ *       se repartieron los datos. El anillo no reubica clientes, así que si cambian y ya
+ *       hay clientes el arranque falla; sin datos se registra la nueva topología.</li>
+ *   <li>Crea e inicializa la secuencia global de IDs de cliente en el primer shard.</li>
+ *   <li>Crea el registro global de correos ({@link RegistroCorreos}) y, si está vacío,
+ *       lo rellena con los clientes existentes.</li>
+ * </ul>
+ */
+@Component
+@Lazy(false)
+@DependsOn("entityManagerFactory")
+@ConditionalOnProperty(name = "multipedidos.sharding.habilitado", havingValue = "true")
+@RequiredArgsConstructor
+@Slf4j
+public class InicializadorShards implements SmartInitializingSingleton {
+
+    private static final String TABLA_TOPOLOGIA = "topologia_shards";
+    private static final int LOTE_RELLENO_CORREOS = 1000;
+
+    private final EjecutorShards ejecutorShards;
+    private final ShardingProperties shardingProperties;
+    private final JdbcTemplate jdbcTemplate;
+    private final EsquemaShards esquemaShards;
+    private final Map<String, DelayedDropAction> borradosAlCerrar = new LinkedHashMap<>();
+
+    @Override
+    public void afterSingletonsInstantiated() {
+        List<String> shards = ejecutorShards.shards();
+        for (int i = 0; i < shards.size(); i++) {
+            int indice = i;
+            ejecutorShards.enShard(shards.get(i), () -> {
+                if (indice > 0) {
+                    aplicarEsquema(shards.get(indice));
+                }
+                ajustarIdsPedidos(shards.get(indice), indice * EjecutorShards.BLOQUE_IDS_PEDIDO);
+                return null;
+            });
+        }
+        ejecutorShards.enShard(shards.get(0), () -> {
+            verificarTopologia(shards);
+            inicializarSecuenciaClientes();
+            inicializarRegistroCorreos();
+            return null;
+        });
+    }
+
+    /**
+     * Borra el esquema de los shards creados con {@code create-drop}, antes de que se
+     * cierren la factoría de sesiones y los pools de los que depende este bean.
+     */
+    @PreDestroy
+    public void borrarEsquemas() {
+        borradosAlCerrar.forEach((shard, borrado) -> {
+            try {
+                ejecutorShards.enShard(shard, () -> {
+                    esquemaShards.borrar(borrado);
+                    return null;
+                });
+            } catch (RuntimeException ex) {
+                log.warn("No se pudo borrar el esquema del shard '{}'", shard, ex);
+            }
+        });
+        borradosAlCerrar.clear();
+    }
+
+    private void aplicarEsquema(String shard) {
+        log.info("Aplicando el esquema en el shard '{}'", shard);
+        DelayedDropAction borrado = esquemaShards.aplicar();
+        if (borrado != null) {
+            borradosAlCerrar.put(shard, borrado);
+        }
+    }
+
+    private void verificarTopologia(List<String> shards) {
+        jdbcTemplate.execute("CREATE TABLE IF NOT EXISTS " + TABLA_TOPOLOGIA
+                + " (indice INT NOT NULL PRIMARY KEY, nombre VARCHAR(64) NOT NULL, nodos_virtuales INT NOT NULL)");
+        int nodosVirtuales = shardingProperties.getNodosVirtuales();
+        List<String> actual = shards.stream().map(shard -> shard + "#" + nodosVirtuales).toList();
+        List<String> registrada = jdbcTemplate.queryForList("SELECT CONCAT(nombre, '#', nodos_virtuales) FROM "
+                + TABLA_TOPOLOGIA + " ORDER BY indice", String.class);
+        if (registrada.equals(actual)) {
+            return;
+        }
+
+        boolean hayClientes = ejecutorShards.consultarEnTodos(() ->
+                !jdbcTemplate.queryForList("SELECT id FROM clientes LIMIT 1", Long.class).isEmpty()).contains(true);
+        if (hayClientes && !registrada.isEmpty()) {
+            throw new IllegalStateException("Los shards o los nodos virtuales cambiaron (" + registrada + " -> " + actual
+                    + ") y ya hay clientes: el anillo no reubica datos, hay que migrarlos antes de cambiar la topología");
+        }
+        if (hayClientes) {
+            log.warn("No había topología de shards registrada y ya hay clientes; se registra {} sin comprobar el reparto", actual);
+        }
+        jdbcTemplate.update("DELETE FROM " + TABLA_TOPOLOGIA);
+        jdbcTemplate.batchUpdate("INSERT INTO " + TABLA_TOPOLOGIA + " (indice, nombre, nodos_virtuales) VALUES (?, ?, ?)",
+                IntStream.range(0, shards.size())
+                        .mapToObj(i -> new Object[]{i, shards.get(i), nodosVirtuales})
+                        .toList());
+        log.info("Topología de shards registrada: {}", actual);
+    }
+
+    private void ajustarIdsPedidos(String shard, long base) {
+        Long maximo = jdbcTemplate.queryForObject("SELECT COALESCE(MAX(id), 0) FROM pedidos", Long.class);
+        if (base == 0 || maximo >= base) {
+            return;
+        }
+        String sql = esH2()
+                ? "ALTER TABLE pedidos ALTER COLUMN id RESTART WITH " + base
+                : "ALTER TABLE pedidos AUTO_INCREMENT = " + base;
+        jdbcTemplate.execute(sql);
+        log.info("IDs de pedido del shard '{}' comienzan en {}", shard, base);
+    }
+
+    private void inicializarSecuenciaClientes() {
+        jdbcTemplate.execute("CREATE TABLE IF NOT EXISTS " + AsignadorIdsClientes.TABLA_SECUENCIA
+                + " (id INT NOT NULL PRIMARY KEY, siguiente BIGINT NOT NULL)");
+        Integer filas = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM " + AsignadorIdsClientes.TABLA_SECUENCIA, Integer.class);
+        if (filas != null && filas > 0) {
+            return;
+        }
+
+        // Continuar tras el mayor ID existente en cualquier shard
+        long maximo = ejecutorShards.consultarEnTodos(() ->
+                        jdbcTemplate.queryForObject("SELECT COALESCE(MAX(id), 0) FROM clientes", Long.class))
+                .stream()
+                .mapToLong(Long::longValue)
+                .max()
+                .orElse(0);
+        try {
+            jdbcTemplate.update("INSERT INTO " + AsignadorIdsClientes.TABLA_SECUENCIA + " (id, siguiente) VALUES (1, ?)", maximo + 1);
+            log.info("Secuencia global de IDs de cliente inicializada en {}", maximo + 1);
+        } catch (DuplicateKeyException ex) {
+            log.debug("Otra instancia inicializó la secuencia de IDs de cliente");
+        }
+    }
+
+    private void inicializarRegistroCorreos() {
+        jdbcTemplate.execute("CREATE TABLE IF NOT EXISTS " + RegistroCorreos.TABLA
+                + " (correo VARCHAR(255) NOT NULL PRIMARY KEY, cliente_id BIGINT NOT NULL)");
+        if (!jdbcTemplate.queryForList("SELECT cliente_id FROM " + RegistroCorreos.TABLA + " LIMIT 1", Long.class).isEmpty()) {
+            return;
+        }
+
+        // Registrar los correos de los clientes existentes, por lotes de ID en cada shard
+        long registrados = 0;
+        String primero = ejecutorShards.shards().get(0);
+        for (String shard : ejecutorShards.shards()) {
+            long desde = 0;
+            while (true) {
+                long inicio = desde;
+                List<Map<String, Object>> lote = ejecutorShards.enShard(shard, () -> jdbcTemplate.queryForList(
+                        "SELECT id, correo FROM clientes WHERE id > ? ORDER BY id LIMIT " + LOTE_RELLENO_CORREOS, inicio));
+                if (lote.isEmpty()) {
+                    break;
+                }
+                List<Object[]> filas = new ArrayList<>(lote.size());
+                for (Map<String, Object> cliente : lote) {
+                    filas.add(new Object[]{cliente.get("correo"), cliente.get("id")});
+                }
+                ejecutorShards.enShard(primero, () -> jdbcTemplate.batchUpdate(
+                        "INSERT IGNORE INTO " + RegistroCorreos.TABLA + " (correo, cliente_id) VALUES (?, ?)", filas));
+                registrados += lote.size();
+                desde = ((Number) lote.get(lote.size() - 1).get("id")).longValue();
+            }
+        }
+        if (registrados > 0) {
+            log.info("Registro global de correos rellenado con {} clientes", registrados);
+        }
+    }
+
+    private boolean esH2() {
+        return Boolean.TRUE.equals(jdbcTemplate.execute((ConnectionCallback<Boolean>) conexion ->
+                conexion.getMetaData().getDatabaseProductName().contains("H2")));
+    }
+}
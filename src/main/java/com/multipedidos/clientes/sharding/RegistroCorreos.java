@@ -0,0 +1,124 @@
+package com.multipedidos.clientes.sharding;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Supplier;
+
+/**
+ * Unicidad global del correo de los clientes en modo fragmentado.
+ *
+ * El índice único de {@code clientes.correo} solo cubre su shard, así que cada correo
+ * se reserva antes en {@code correos_clientes} (en el primer shard), cuya clave primaria
+ * es el correo. La reserva es atómica: de dos altas concurrentes con el mismo correo
+ * solo una consigue insertar la fila. Si el alta en el shard falla, el llamante libera
+ * la reserva; si ni eso es posible, la fila queda huérfana y el correo sigue bloqueado,
+ * nunca duplicado.
+ * Sin fragmentación no hace nada: el índice único de {@code clientes} basta.
+ */
+@Component
+@Slf4j
+public class RegistroCorreos {
+
+    static final String TABLA = "correos_clientes";
+
+    private final EjecutorShards ejecutorShards;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transaccionNueva;
+
+    public RegistroCorreos(EjecutorShards ejecutorShards, JdbcTemplate jdbcTemplate,
+                           PlatformTransactionManager transactionManager) {
+        this.ejecutorShards = ejecutorShards;
+        this.jdbcTemplate = jdbcTemplate;
+        // Transacción propia: el llamante puede tener abierta otra en el shard del cliente
+        this.transaccionNueva = new TransactionTemplate(transactionManager);
+        this.transaccionNueva.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    /**
+     * Reserva el correo para el cliente.
+     *
+     * @return false si el correo ya pertenece a otro cliente
+     */
+    public boolean reservar(String correo, long clienteId) {
+        if (!ejecutorShards.fragmentado()) {
+            return true;
+        }
+        return enPrimerShard(() -> {
+            try {
+                jdbcTemplate.update("INSERT INTO " + TABLA + " (correo, cliente_id) VALUES (?, ?)", correo, clienteId);
+                return true;
+            } catch (DuplicateKeyException ex) {
+                List<Long> duenos = jdbcTemplate.queryForList(
+                        "SELECT cliente_id FROM " + TABLA + " WHERE correo = ?", Long.class, correo);
+                return duenos.size() == 1 && duenos.get(0) == clienteId;
+            }
+        });
+    }
+
+    /**
+     * Reserva varios correos (correo → ID de cliente) con un INSERT multi-fila,
+     * o fila a fila si alguno ya estaba registrado.
+     *
+     * @return los correos que pertenecen a otro cliente y no se reservaron
+     */
+    public Set<String> reservar(Map<String, Long> correos) {
+        if (!ejecutorShards.fragmentado() || correos.isEmpty()) {
+            return Set.of();
+        }
+        try {
+            enPrimerShard(() -> {
+                StringBuilder sql = new StringBuilder("INSERT INTO " + TABLA + " (correo, cliente_id) VALUES ");
+                List<Object> parametros = new ArrayList<>(correos.size() * 2);
+                correos.forEach((correo, clienteId) -> {
+                    sql.append(parametros.isEmpty() ? "(?, ?)" : ", (?, ?)");
+                    parametros.add(correo);
+                    parametros.add(clienteId);
+                });
+                return jdbcTemplate.update(sql.toString(), parametros.toArray());
+            });
+            return Set.of();
+        } catch (DuplicateKeyException ex) {
+            log.debug("Conflicto al reservar {} correos, reintentando fila a fila", correos.size());
+            Set<String> ocupados = new LinkedHashSet<>();
+            correos.forEach((correo, clienteId) -> {
+                if (!reservar(correo, clienteId)) {
+                    ocupados.add(correo);
+                }
+            });
+            return ocupados;
+        }
+    }
+
+    /**
+     * Libera el correo si está reservado para el cliente.
+     */
+    public void liberar(String correo, long clienteId) {
+        if (!ejecutorShards.fragmentado()) {
+            return;
+        }
+        enPrimerShard(() -> jdbcTemplate.update(
+                "DELETE FROM " + TABLA + " WHERE correo = ? AND cliente_id = ?", correo, clienteId));
+    }
+
+    /**
+     * Libera varios correos (correo → ID de cliente).
+     */
+    public void liberar(Map<String, Long> correos) {
+        correos.forEach(this::liberar);
+    }
+
+    private <T> T enPrimerShard(Supplier<T> operacion) {
+        return ejecutorShards.enShard(ejecutorShards.shards().get(0), () -> transaccionNueva.execute(status -> operacion.get()));
+    }
+}
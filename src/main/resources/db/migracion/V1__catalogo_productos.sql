@@ -0,0 +1,34 @@
+-- Normaliza los nombres de producto en el catálogo (MySQL).
+-- Equivalente a MigracionCatalogoProductos para despliegues con ddl-auto: none.
+-- La columna nombre se conserva en esta versión para las instancias anteriores;
+-- la versión siguiente deja de mapearla y la elimina.
+
+-- Colación binaria: "Café", "cafe" y "CAFE" son productos distintos, como antes de normalizar
+CREATE TABLE IF NOT EXISTS catalogo_productos (
+    id BIGINT NOT NULL AUTO_INCREMENT,
+    nombre VARCHAR(255) CHARACTER SET utf8mb4 COLLATE utf8mb4_bin NOT NULL,
+    PRIMARY KEY (id),
+    UNIQUE KEY uk_catalogo_productos_nombre (nombre)
+);
+
+ALTER TABLE productos ADD COLUMN catalogo_producto_id BIGINT NULL;
+ALTER TABLE productos_archivados ADD COLUMN catalogo_producto_id BIGINT NULL;
+
+ALTER TABLE catalogo_productos MODIFY nombre VARCHAR(255) CHARACTER SET utf8mb4 COLLATE utf8mb4_bin NOT NULL;
+
+-- Sin DISTINCT (fusionaría variantes con la colación de productos); la clave única binaria descarta los duplicados exactos.
+-- Las comparaciones con catalogo_productos.nombre usan su colación _bin.
+INSERT IGNORE INTO catalogo_productos (nombre)
+SELECT nombre FROM productos WHERE nombre IS NOT NULL;
+INSERT IGNORE INTO catalogo_productos (nombre)
+SELECT nombre FROM productos_archivados WHERE nombre IS NOT NULL;
+
+UPDATE productos p JOIN catalogo_productos c ON c.nombre = p.nombre
+SET p.catalogo_producto_id = c.id;
+UPDATE productos_archivados p JOIN catalogo_productos c ON c.nombre = p.nombre
+SET p.catalogo_producto_id = c.id;
+
+ALTER TABLE productos
+    ADD CONSTRAINT fk_productos_catalogo FOREIGN KEY (catalogo_producto_id) REFERENCES catalogo_productos (id);
+ALTER TABLE productos_archivados
+    ADD CONSTRAINT fk_productos_archivados_catalogo FOREIGN KEY (catalogo_producto_id) REFERENCES catalogo_productos (id);
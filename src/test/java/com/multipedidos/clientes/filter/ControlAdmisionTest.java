@@ -0,0 +1,105 @@
+package com.multipedidos.clientes.filter;
+
+import com.multipedidos.clientes.config.LimiteTasaProperties;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Pruebas del bucle AIMD del control de admisión.
+ */
+class ControlAdmisionTest {
+
+    private static final long INICIO = 1_000_000L;
+    private static final long MILISEGUNDO = TimeUnit.MILLISECONDS.toNanos(1);
+
+    private LimiteTasaProperties.Admision config;
+
+    @BeforeEach
+    void preparar() {
+        config = new LimiteTasaProperties.Admision();
+        config.setConcurrenciaMaxima(200);
+        config.setConcurrenciaMinima(10);
+        config.setUmbralEsperaPool(1);
+        config.setVentanaReduccion(Duration.ofSeconds(1));
+    }
+
+    @Test
+    void unaRafagaDeSalidasConCongestionReduceUnaSolaVez() {
+        ControlAdmision control = new ControlAdmision(config, null, INICIO);
+
+        for (int i = 0; i < 500; i++) {
+            control.ajustarLimite(5, INICIO + i * MILISEGUNDO / 10);
+        }
+
+        assertThat(control.limiteActual()).isEqualTo(180);
+    }
+
+    @Test
+    void reduceDeNuevoTrasCadaVentana() {
+        ControlAdmision control = new ControlAdmision(config, null, INICIO);
+
+        control.ajustarLimite(5, INICIO);
+        control.ajustarLimite(5, INICIO + 999 * MILISEGUNDO);
+        assertThat(control.limiteActual()).isEqualTo(180);
+
+        control.ajustarLimite(5, INICIO + 1000 * MILISEGUNDO);
+        assertThat(control.limiteActual()).isEqualTo(162);
+    }
+
+    @Test
+    void noBajaDeLaConcurrenciaMinima() {
+        ControlAdmision control = new ControlAdmision(config, null, INICIO);
+
+        for (int ventana = 0; ventana < 100; ventana++) {
+            control.ajustarLimite(5, INICIO + ventana * 1000 * MILISEGUNDO);
+        }
+
+        assertThat(control.limiteActual()).isEqualTo(10);
+    }
+
+    @Test
+    void creceDeUnoEnUnoHastaElMaximoSinCongestion() {
+        ControlAdmision control = new ControlAdmision(config, null, INICIO);
+        control.ajustarLimite(5, INICIO);
+
+        control.ajustarLimite(0, INICIO + MILISEGUNDO);
+        control.ajustarLimite(0, INICIO + 2 * MILISEGUNDO);
+        assertThat(control.limiteActual()).isEqualTo(182);
+
+        for (int i = 0; i < 100; i++) {
+            control.ajustarLimite(0, INICIO + (3 + i) * MILISEGUNDO);
+        }
+        assertThat(control.limiteActual()).isEqualTo(200);
+    }
+
+    @Test
+    void porDebajoDelUmbralNoSeConsideraCongestion() {
+        config.setUmbralEsperaPool(3);
+        ControlAdmision control = new ControlAdmision(config, null, INICIO);
+        control.ajustarLimite(3, INICIO);
+
+        control.ajustarLimite(2, INICIO + MILISEGUNDO);
+
+        assertThat(control.limiteActual()).isEqualTo(181);
+    }
+
+    @Test
+    void admiteHastaElLimiteActual() {
+        config.setConcurrenciaMaxima(2);
+        config.setConcurrenciaMinima(1);
+        ControlAdmision control = new ControlAdmision(config, null, INICIO);
+
+        assertThat(control.intentarEntrar()).isTrue();
+        assertThat(control.intentarEntrar()).isTrue();
+        assertThat(control.intentarEntrar()).isFalse();
+
+        control.ajustarLimite(5, INICIO);
+        assertThat(control.limiteActual()).isEqualTo(1);
+        assertThat(control.intentarEntrar()).isFalse();
+    }
+}
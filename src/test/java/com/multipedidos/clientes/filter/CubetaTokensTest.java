@@ -0,0 +1,121 @@
+package com.multipedidos.clientes.filter;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Pruebas de la aritmética GCRA de la cubeta de tokens.
+ */
+class CubetaTokensTest {
+
+    private static final long SEGUNDO = TimeUnit.SECONDS.toNanos(1);
+    private static final long INICIO = 1_000_000L;
+
+    @Test
+    void admiteUnaRafagaIgualALaCapacidad() {
+        CubetaTokens cubeta = new CubetaTokens(3, 1, INICIO);
+
+        assertThat(cubeta.intentarConsumir(INICIO)).isZero();
+        assertThat(cubeta.intentarConsumir(INICIO)).isZero();
+        assertThat(cubeta.intentarConsumir(INICIO)).isZero();
+        assertThat(cubeta.intentarConsumir(INICIO)).isEqualTo(SEGUNDO);
+    }
+
+    @Test
+    void laEsperaIndicaCuandoHabraUnToken() {
+        CubetaTokens cubeta = new CubetaTokens(2, 4, INICIO);
+        cubeta.intentarConsumir(INICIO);
+        cubeta.intentarConsumir(INICIO);
+
+        long espera = cubeta.intentarConsumir(INICIO);
+
+        assertThat(espera).isEqualTo(SEGUNDO / 4);
+        assertThat(cubeta.intentarConsumir(INICIO + espera - 1)).isEqualTo(1);
+        assertThat(cubeta.intentarConsumir(INICIO + espera)).isZero();
+    }
+
+    @Test
+    void unRechazoNoConsumeToken() {
+        CubetaTokens cubeta = new CubetaTokens(1, 1, INICIO);
+        cubeta.intentarConsumir(INICIO);
+
+        for (int i = 0; i < 10; i++) {
+            assertThat(cubeta.intentarConsumir(INICIO)).isEqualTo(SEGUNDO);
+        }
+        assertThat(cubeta.intentarConsumir(INICIO + SEGUNDO)).isZero();
+    }
+
+    @Test
+    void seRecargaALaTasaConfiguradaSinSuperarLaCapacidad() {
+        CubetaTokens cubeta = new CubetaTokens(3, 1, INICIO);
+        for (int i = 0; i < 3; i++) {
+            cubeta.intentarConsumir(INICIO);
+        }
+
+        // Tras un segundo hay un token; tras mucho tiempo, solo la capacidad
+        assertThat(cubeta.intentarConsumir(INICIO + SEGUNDO)).isZero();
+        assertThat(cubeta.intentarConsumir(INICIO + SEGUNDO)).isPositive();
+
+        long despues = INICIO + 100 * SEGUNDO;
+        assertThat(cubeta.intentarConsumir(despues)).isZero();
+        assertThat(cubeta.intentarConsumir(despues)).isZero();
+        assertThat(cubeta.intentarConsumir(despues)).isZero();
+        assertThat(cubeta.intentarConsumir(despues)).isPositive();
+    }
+
+    @Test
+    void estaLlenaCuandoSeHaRepuestoTodo() {
+        CubetaTokens cubeta = new CubetaTokens(3, 1, INICIO);
+        assertThat(cubeta.estaLlena(INICIO)).isTrue();
+
+        cubeta.intentarConsumir(INICIO);
+        cubeta.intentarConsumir(INICIO);
+
+        assertThat(cubeta.estaLlena(INICIO + SEGUNDO)).isFalse();
+        assertThat(cubeta.estaLlena(INICIO + 2 * SEGUNDO)).isTrue();
+    }
+
+    @Test
+    void enConcurrenciaSoloSeAdmiteLaCapacidad() throws Exception {
+        int capacidad = 50;
+        int hilos = 8;
+        CubetaTokens cubeta = new CubetaTokens(capacidad, 1, INICIO);
+        CountDownLatch salida = new CountDownLatch(1);
+        ExecutorService ejecutor = Executors.newFixedThreadPool(hilos);
+        try {
+            List<Future<Integer>> admitidas = new ArrayList<>();
+            for (int h = 0; h < hilos; h++) {
+                Callable<Integer> tarea = () -> {
+                    salida.await();
+                    int admitidasHilo = 0;
+                    for (int i = 0; i < capacidad; i++) {
+                        if (cubeta.intentarConsumir(INICIO) == 0) {
+                            admitidasHilo++;
+                        }
+                    }
+                    return admitidasHilo;
+                };
+                admitidas.add(ejecutor.submit(tarea));
+            }
+            salida.countDown();
+
+            int total = 0;
+            for (Future<Integer> futuro : admitidas) {
+                total += futuro.get(5, TimeUnit.SECONDS);
+            }
+            assertThat(total).isEqualTo(capacidad);
+        } finally {
+            ejecutor.shutdownNow();
+        }
+    }
+}
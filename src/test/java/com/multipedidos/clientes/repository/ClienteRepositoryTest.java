@@ -0,0 +1,71 @@
+package com.multipedidos.clientes.repository;
+
+import com.multipedidos.clientes.model.Cliente;
+import com.multipedidos.clientes.sharding.ColacionShards;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Pruebas del orden de la búsqueda paginada por nombre en H2, la base de los shards
+ * del perfil {@code sharding}: la mezcla entre shards solo es correcta si ordena con
+ * la colación configurada igual que la base ({@code colacion: binaria}).
+ */
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@ActiveProfiles("test")
+class ClienteRepositoryTest {
+
+    private static final List<String> NOMBRES = List.of("Álvaro", "ana", "Zoe", "Ana", "zoe", "Beatriz", "Ana");
+
+    @Autowired
+    private ClienteRepository clienteRepository;
+
+    @BeforeEach
+    void insertarClientes() {
+        for (int i = 0; i < NOMBRES.size(); i++) {
+            clienteRepository.insertarConId(100L + i, NOMBRES.get(i), "cliente" + i + "@example.com", LocalDateTime.now());
+        }
+    }
+
+    @Test
+    void ordenaPorNombreConLaColacionBinaria() {
+        List<Cliente> clientes = clienteRepository.buscarPorNombreDesde("%", "", 0L, PageRequest.of(0, 100));
+
+        List<Cliente> esperados = new ArrayList<>(clientes);
+        esperados.sort(Comparator.comparing(Cliente::getNombre, ColacionShards.BINARIA.comparador())
+                .thenComparing(Cliente::getId));
+        assertThat(clientes).hasSize(NOMBRES.size());
+        assertThat(clientes).containsExactlyElementsOf(esperados);
+    }
+
+    @Test
+    void elCursorRecorreTodosLosClientesUnaSolaVez() {
+        List<Long> recorridos = new ArrayList<>();
+        String nombre = "";
+        Long id = 0L;
+        while (true) {
+            List<Cliente> pagina = clienteRepository.buscarPorNombreDesde("%", nombre, id, PageRequest.of(0, 2));
+            if (pagina.isEmpty()) {
+                break;
+            }
+            pagina.forEach(cliente -> recorridos.add(cliente.getId()));
+            Cliente ultimo = pagina.get(pagina.size() - 1);
+            nombre = ultimo.getNombre();
+            id = ultimo.getId();
+        }
+
+        assertThat(recorridos).containsExactlyInAnyOrder(100L, 101L, 102L, 103L, 104L, 105L, 106L);
+    }
+}
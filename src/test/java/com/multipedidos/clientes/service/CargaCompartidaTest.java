@@ -0,0 +1,155 @@
+package com.multipedidos.clientes.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.mock;
+
+/**
+ * Pruebas del agrupamiento de lecturas concurrentes (single-flight).
+ */
+class CargaCompartidaTest {
+
+    private static final int SEGUIDORES = 8;
+
+    private SimpleMeterRegistry registry;
+    private CargaCompartida<Long, List<String>> carga;
+    private ExecutorService hilos;
+
+    @BeforeEach
+    void preparar() {
+        registry = new SimpleMeterRegistry();
+        carga = new CargaCompartida<>("prueba", registry,
+                new TransactionTemplate(mock(PlatformTransactionManager.class)), ArrayList::new);
+        hilos = Executors.newFixedThreadPool(SEGUIDORES + 1);
+    }
+
+    @AfterEach
+    void terminar() {
+        hilos.shutdownNow();
+    }
+
+    @Test
+    void llamadasConcurrentesCompartenUnaSolaCarga() throws Exception {
+        CountDownLatch liberar = new CountDownLatch(1);
+        AtomicInteger cargas = new AtomicInteger();
+
+        Future<List<String>> lider = hilos.submit(() -> carga.cargar(1L, () -> {
+            cargas.incrementAndGet();
+            esperar(liberar);
+            return List.of("cliente-1");
+        }));
+        esperarHasta(() -> cargas.get() == 1);
+
+        List<Future<List<String>>> seguidores = new ArrayList<>();
+        for (int i = 0; i < SEGUIDORES; i++) {
+            seguidores.add(hilos.submit(() -> carga.cargar(1L, () -> {
+                cargas.incrementAndGet();
+                return List.of("no-debe-cargarse");
+            })));
+        }
+        esperarHasta(() -> compartidas() == SEGUIDORES);
+        liberar.countDown();
+
+        List<List<String>> resultados = new ArrayList<>();
+        resultados.add(lider.get(5, TimeUnit.SECONDS));
+        for (Future<List<String>> seguidor : seguidores) {
+            resultados.add(seguidor.get(5, TimeUnit.SECONDS));
+        }
+
+        assertThat(cargas).hasValue(1);
+        assertThat(resultados).allSatisfy(valor -> assertThat(valor).containsExactly("cliente-1"));
+        // Cada llamada recibe su propia copia
+        resultados.get(0).add("modificado");
+        assertThat(resultados.get(1)).containsExactly("cliente-1");
+        assertThat(carga.ratioCoalescencia()).isEqualTo((double) SEGUIDORES / (SEGUIDORES + 1));
+    }
+
+    @Test
+    void elErrorDeLaCargaSePropagaATodosLosQueEsperan() throws Exception {
+        CountDownLatch liberar = new CountDownLatch(1);
+        AtomicInteger cargas = new AtomicInteger();
+
+        Future<List<String>> lider = hilos.submit(() -> carga.cargar(1L, () -> {
+            cargas.incrementAndGet();
+            esperar(liberar);
+            throw new IllegalStateException("fallo de base de datos");
+        }));
+        esperarHasta(() -> cargas.get() == 1);
+        Future<List<String>> seguidor = hilos.submit(() -> carga.cargar(1L, () -> List.of("no-debe-cargarse")));
+        esperarHasta(() -> compartidas() == 1);
+        liberar.countDown();
+
+        for (Future<List<String>> llamada : List.of(lider, seguidor)) {
+            assertThatThrownBy(() -> llamada.get(5, TimeUnit.SECONDS))
+                    .isInstanceOf(ExecutionException.class)
+                    .cause()
+                    .isInstanceOf(IllegalStateException.class)
+                    .hasMessage("fallo de base de datos");
+        }
+        assertThat(cargas).hasValue(1);
+    }
+
+    @Test
+    void laClaveSeLiberaAlTerminarLaCarga() {
+        AtomicInteger cargas = new AtomicInteger();
+
+        carga.cargar(1L, () -> List.of("v" + cargas.incrementAndGet()));
+        List<String> segunda = carga.cargar(1L, () -> List.of("v" + cargas.incrementAndGet()));
+
+        assertThat(cargas).hasValue(2);
+        assertThat(segunda).containsExactly("v2");
+        assertThat(compartidas()).isZero();
+    }
+
+    @Test
+    void laClaveSeLiberaTrasUnError() {
+        assertThatThrownBy(() -> carga.cargar(1L, () -> {
+            throw new IllegalStateException("fallo");
+        })).isInstanceOf(IllegalStateException.class);
+
+        assertThat(carga.cargar(1L, () -> List.of("reintento"))).containsExactly("reintento");
+    }
+
+    private double compartidas() {
+        return registry.get("multipedidos.lecturas.compartidas").counter().count();
+    }
+
+    private static void esperar(CountDownLatch latch) {
+        try {
+            if (!latch.await(5, TimeUnit.SECONDS)) {
+                throw new IllegalStateException("La prueba no liberó la carga");
+            }
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(ex);
+        }
+    }
+
+    private static void esperarHasta(BooleanSupplier condicion) throws InterruptedException {
+        long limite = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (!condicion.getAsBoolean()) {
+            if (System.nanoTime() > limite) {
+                throw new AssertionError("La condición no se cumplió a tiempo");
+            }
+            Thread.sleep(5);
+        }
+    }
+}
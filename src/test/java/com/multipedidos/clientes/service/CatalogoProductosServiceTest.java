@@ -0,0 +1,65 @@
+package com.multipedidos.clientes.service;
+
+import com.multipedidos.clientes.model.CatalogoProducto;
+import com.multipedidos.clientes.repository.CatalogoProductoRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Pruebas de la resolución de nombres en el catálogo de productos.
+ * El repositorio simula una colación que no distingue mayúsculas ni acentos.
+ */
+class CatalogoProductosServiceTest {
+
+    private CatalogoProductoRepository catalogoRepository;
+    private CatalogoProductosService catalogoProductosService;
+
+    @BeforeEach
+    void preparar() {
+        catalogoRepository = mock(CatalogoProductoRepository.class);
+        catalogoProductosService = new CatalogoProductosService(catalogoRepository, mock(PlatformTransactionManager.class));
+        ReflectionTestUtils.setField(catalogoProductosService, "maximoCache", 100);
+    }
+
+    @Test
+    void variantesDeMayusculasYAcentosSeCreanComoProductosDistintos() {
+        when(catalogoRepository.findByNombreIn(anyCollection()))
+                .thenReturn(List.of(new CatalogoProducto(1L, "Café")));
+        when(catalogoRepository.save(any(CatalogoProducto.class)))
+                .thenAnswer(invocacion -> {
+                    CatalogoProducto nuevo = invocacion.getArgument(0);
+                    return new CatalogoProducto("cafe".equals(nuevo.getNombre()) ? 2L : 3L, nuevo.getNombre());
+                });
+
+        Map<String, CatalogoProducto> resultado = catalogoProductosService.resolver(Set.of("cafe", "CAFE"));
+
+        assertThat(resultado).containsOnlyKeys("cafe", "CAFE");
+        assertThat(resultado.get("cafe").getId()).isEqualTo(2L);
+        assertThat(resultado.get("cafe").getNombre()).isEqualTo("cafe");
+        assertThat(resultado.get("CAFE").getId()).isEqualTo(3L);
+        assertThat(resultado.get("CAFE").getNombre()).isEqualTo("CAFE");
+    }
+
+    @Test
+    void nombreExactoReutilizaLaEntradaExistente() {
+        when(catalogoRepository.findByNombreIn(anyCollection()))
+                .thenReturn(List.of(new CatalogoProducto(1L, "Café"), new CatalogoProducto(4L, "CAFÉ")));
+
+        Map<String, CatalogoProducto> resultado = catalogoProductosService.resolver(Set.of("Café"));
+
+        assertThat(resultado).containsOnlyKeys("Café");
+        assertThat(resultado.get("Café").getId()).isEqualTo(1L);
+    }
+}
@@ -0,0 +1,80 @@
+package com.multipedidos.clientes.service;
+
+import com.multipedidos.clientes.dto.EstadisticasClienteDTO;
+import com.multipedidos.clientes.model.Pedido;
+import com.multipedidos.clientes.repository.PedidoRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Pruebas del mantenimiento de las estadísticas al registrar pedidos.
+ * Los pedidos se guardan antes de registrarlos, como en PedidoService.
+ */
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@ActiveProfiles("test")
+@Import(EstadisticasClienteService.class)
+class EstadisticasClienteServiceTest {
+
+    @Autowired
+    private EstadisticasClienteService estadisticasClienteService;
+
+    @Autowired
+    private PedidoRepository pedidoRepository;
+
+    @Test
+    void primerPedidoCreaLasEstadisticasConUnSoloPedido() {
+        Pedido pedido = pedidoRepository.save(pedido(1L, "25.50"));
+
+        estadisticasClienteService.registrarPedido(pedido);
+
+        EstadisticasClienteDTO estadisticas = estadisticasClienteService.obtenerEstadisticas(1L);
+        assertThat(estadisticas.getCantidadPedidos()).isEqualTo(1);
+        assertThat(estadisticas.getTotalGastado()).isEqualByComparingTo("25.50");
+        assertThat(estadisticas.getFechaUltimoPedido()).isNotNull();
+    }
+
+    @Test
+    void loteConElPrimerPedidoNoCuentaDosVeces() {
+        List<Pedido> guardados = pedidoRepository.saveAll(List.of(
+                pedido(2L, "10.00"), pedido(2L, "20.00"), pedido(3L, "5.00")));
+
+        estadisticasClienteService.registrarPedidos(guardados);
+
+        EstadisticasClienteDTO cliente2 = estadisticasClienteService.obtenerEstadisticas(2L);
+        assertThat(cliente2.getCantidadPedidos()).isEqualTo(2);
+        assertThat(cliente2.getTotalGastado()).isEqualByComparingTo("30.00");
+        EstadisticasClienteDTO cliente3 = estadisticasClienteService.obtenerEstadisticas(3L);
+        assertThat(cliente3.getCantidadPedidos()).isEqualTo(1);
+        assertThat(cliente3.getTotalGastado()).isEqualByComparingTo("5.00");
+    }
+
+    @Test
+    void loteTrasElPrimerPedidoSumaSobreLaFilaExistente() {
+        estadisticasClienteService.registrarPedido(pedidoRepository.save(pedido(4L, "7.25")));
+
+        estadisticasClienteService.registrarPedidos(pedidoRepository.saveAll(List.of(
+                pedido(4L, "2.75"), pedido(4L, "10.00"))));
+
+        EstadisticasClienteDTO estadisticas = estadisticasClienteService.obtenerEstadisticas(4L);
+        assertThat(estadisticas.getCantidadPedidos()).isEqualTo(3);
+        assertThat(estadisticas.getTotalGastado()).isEqualByComparingTo("20.00");
+    }
+
+    private Pedido pedido(Long clienteId, String total) {
+        return Pedido.builder()
+                .clienteId(clienteId)
+                .total(new BigDecimal(total))
+                .estado(Pedido.EstadoPedido.PENDIENTE)
+                .build();
+    }
+}
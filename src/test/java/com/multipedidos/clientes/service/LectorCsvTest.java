@@ -0,0 +1,99 @@
+package com.multipedidos.clientes.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Pruebas del lector de registros CSV de la importación de clientes.
+ */
+class LectorCsvTest {
+
+    @Test
+    void separaLasColumnasYEliminaLosEspacios() throws IOException {
+        assertThat(leer("Ana García , ana@example.com")).containsExactly(List.of("Ana García", "ana@example.com"));
+    }
+
+    @Test
+    void unCampoEntreComillasPuedeContenerComas() throws IOException {
+        assertThat(leer("\"García, Ana\",ana@example.com")).containsExactly(List.of("García, Ana", "ana@example.com"));
+    }
+
+    @Test
+    void lasComillasDoblesSeEscapanDuplicandolas() throws IOException {
+        assertThat(leer("\"Ana \"\"la jefa\"\"\",ana@example.com"))
+                .containsExactly(List.of("Ana \"la jefa\"", "ana@example.com"));
+    }
+
+    @Test
+    void unCampoEntreComillasVacioEsUnaColumnaVacia() throws IOException {
+        assertThat(leer("\"\",ana@example.com")).containsExactly(List.of("", "ana@example.com"));
+    }
+
+    @Test
+    void unCampoEntreComillasPuedeOcuparVariasLineas() throws IOException {
+        LectorCsv lector = lector("nombre,correo\n\"Ana\nGarcía\",ana@example.com\r\nLuis,luis@example.com\n");
+
+        assertThat(lector.siguiente()).containsExactly("nombre", "correo");
+        assertThat(lector.lineaInicio()).isEqualTo(1);
+        assertThat(lector.siguiente()).containsExactly("Ana\nGarcía", "ana@example.com");
+        assertThat(lector.lineaInicio()).isEqualTo(2);
+        assertThat(lector.siguiente()).containsExactly("Luis", "luis@example.com");
+        assertThat(lector.lineaInicio()).isEqualTo(4);
+        assertThat(lector.siguiente()).isNull();
+    }
+
+    @Test
+    void unaComillaEscapadaAlFinalDeLaLineaNoCierraElCampo() throws IOException {
+        assertThat(leer("\"Ana \"\"\nGarcía\",ana@example.com"))
+                .containsExactly(List.of("Ana \"\nGarcía", "ana@example.com"));
+    }
+
+    @Test
+    void lasComillasSinCerrarLleganHastaElFinalDelArchivo() throws IOException {
+        assertThat(leer("\"Ana,ana@example.com\nLuis,luis@example.com"))
+                .containsExactly(List.of("Ana,ana@example.com\nLuis,luis@example.com"));
+    }
+
+    @Test
+    void lasComillasSinCerrarNoAcumulanMasDelMaximo() throws IOException {
+        String linea = "x".repeat(1000);
+        StringBuilder csv = new StringBuilder("\"").append(linea);
+        int lineas = LectorCsv.LONGITUD_MAXIMA_REGISTRO / linea.length() + 10;
+        for (int i = 1; i < lineas; i++) {
+            csv.append('\n').append(linea);
+        }
+
+        List<List<String>> registros = leer(csv.toString());
+
+        assertThat(registros.get(0).get(0).length()).isBetween(LectorCsv.LONGITUD_MAXIMA_REGISTRO,
+                LectorCsv.LONGITUD_MAXIMA_REGISTRO + linea.length() + 1);
+        assertThat(registros.size()).isGreaterThan(1);
+    }
+
+    @Test
+    void unaLineaEnBlancoEsUnRegistroConUnaColumnaVacia() throws IOException {
+        assertThat(leer("Ana,ana@example.com\n\nLuis,luis@example.com"))
+                .containsExactly(List.of("Ana", "ana@example.com"), List.of(""), List.of("Luis", "luis@example.com"));
+    }
+
+    private static List<List<String>> leer(String csv) throws IOException {
+        LectorCsv lector = lector(csv);
+        List<List<String>> registros = new ArrayList<>();
+        List<String> registro;
+        while ((registro = lector.siguiente()) != null) {
+            registros.add(registro);
+        }
+        return registros;
+    }
+
+    private static LectorCsv lector(String csv) {
+        return new LectorCsv(new BufferedReader(new StringReader(csv)));
+    }
+}
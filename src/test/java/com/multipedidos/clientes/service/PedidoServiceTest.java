@@ -0,0 +1,99 @@
+package com.multipedidos.clientes.service;
+
+import com.multipedidos.clientes.config.CargaCompartidaConfig;
+import com.multipedidos.clientes.config.ShardingProperties;
+import com.multipedidos.clientes.dto.PedidoDTO;
+import com.multipedidos.clientes.dto.ProductoDTO;
+import com.multipedidos.clientes.sharding.EjecutorShards;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Pruebas de la lectura de las líneas de pedido a través del catálogo.
+ * Los datos se insertan por JDBC, así que la caché del catálogo no conoce los
+ * productos y los nombres salen de las referencias perezosas. Las pruebas no
+ * abren transacción propia: el servicio debe abrir la suya.
+ */
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@ActiveProfiles("test")
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@Import({PedidoService.class, CatalogoProductosService.class, EstadisticasClienteService.class,
+        CargaCompartidaConfig.class, EjecutorShards.class, ShardingProperties.class,
+        PedidoServiceTest.Configuracion.class})
+class PedidoServiceTest {
+
+    @MockBean
+    private ClienteService clienteService;
+
+    @Autowired
+    private PedidoService pedidoService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @TestConfiguration
+    static class Configuracion {
+
+        @Bean
+        MeterRegistry meterRegistry() {
+            return new SimpleMeterRegistry();
+        }
+    }
+
+    @Test
+    void listaLasLineasDeLosPedidosActivosConLaCacheDelCatalogoVacia() {
+        insertarCatalogo(101L, "Teclado");
+        insertarCatalogo(102L, "Ratón");
+        jdbcTemplate.update("INSERT INTO pedidos (id, cliente_id, total, fecha_pedido, estado) "
+                + "VALUES (1001, 10, 37.50, CURRENT_TIMESTAMP, 'PENDIENTE')");
+        jdbcTemplate.update("INSERT INTO productos (id, pedido_id, catalogo_producto_id, precio) VALUES (2001, 1001, 101, 25.50)");
+        jdbcTemplate.update("INSERT INTO productos (id, pedido_id, catalogo_producto_id, precio) VALUES (2002, 1001, 102, 12.00)");
+
+        List<PedidoDTO> pedidos = pedidoService.listarPedidosPorCliente(10L, false, null);
+
+        assertThat(pedidos).hasSize(1);
+        assertThat(nombres(pedidos.get(0))).containsExactlyInAnyOrder("Teclado", "Ratón");
+    }
+
+    @Test
+    void listaLasLineasDeLosPedidosArchivadosConLaCacheDelCatalogoVacia() {
+        insertarCatalogo(103L, "Monitor");
+        jdbcTemplate.update("INSERT INTO pedidos_archivados (id, cliente_id, total, fecha_pedido, estado, fecha_archivado) "
+                + "VALUES (1002, 11, 180.00, CURRENT_TIMESTAMP, 'COMPLETADO', CURRENT_TIMESTAMP)");
+        jdbcTemplate.update("INSERT INTO productos_archivados (id, pedido_id, catalogo_producto_id, precio) "
+                + "VALUES (2003, 1002, 103, 180.00)");
+
+        List<PedidoDTO> pedidos = pedidoService.listarPedidosPorCliente(11L, true, null);
+
+        assertThat(pedidos).hasSize(1);
+        assertThat(nombres(pedidos.get(0))).containsExactly("Monitor");
+    }
+
+    private void insertarCatalogo(Long id, String nombre) {
+        jdbcTemplate.update("INSERT INTO catalogo_productos (id, nombre) VALUES (?, ?)", id, nombre);
+    }
+
+    private static List<String> nombres(PedidoDTO pedido) {
+        return pedido.getProductos().stream()
+                .map(ProductoDTO::getNombre)
+                .collect(Collectors.toList());
+    }
+}
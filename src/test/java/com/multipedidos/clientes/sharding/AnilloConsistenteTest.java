@@ -0,0 +1,73 @@
+package com.multipedidos.clientes.sharding;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Pruebas del reparto de claves del anillo de hash consistente.
+ */
+class AnilloConsistenteTest {
+
+    private static final List<String> TRES_SHARDS = List.of("shard-0", "shard-1", "shard-2");
+    private static final int NODOS_VIRTUALES = 128;
+    private static final int CLAVES = 300_000;
+
+    @Test
+    void repartePorIgualLosIdsConsecutivos() {
+        AnilloConsistente anillo = new AnilloConsistente(TRES_SHARDS, NODOS_VIRTUALES);
+
+        Map<String, Integer> porShard = new HashMap<>();
+        for (long id = 1; id <= CLAVES; id++) {
+            porShard.merge(anillo.shardDe(id), 1, Integer::sum);
+        }
+
+        assertThat(porShard).containsOnlyKeys("shard-0", "shard-1", "shard-2");
+        // Con 128 nodos virtuales cada shard queda a menos de un 20 % de su parte ideal
+        double ideal = CLAVES / 3.0;
+        for (String shard : TRES_SHARDS) {
+            assertThat(porShard.get(shard) / ideal).isBetween(0.8, 1.2);
+        }
+    }
+
+    @Test
+    void laMismaTopologiaAsignaSiempreElMismoShard() {
+        AnilloConsistente anillo = new AnilloConsistente(TRES_SHARDS, NODOS_VIRTUALES);
+        AnilloConsistente otro = new AnilloConsistente(List.of("shard-0", "shard-1", "shard-2"), NODOS_VIRTUALES);
+
+        for (long id = 1; id <= CLAVES; id += 7) {
+            assertThat(otro.shardDe(id)).isEqualTo(anillo.shardDe(id));
+        }
+    }
+
+    @Test
+    void alAnadirUnShardSoloSeMuevenClavesAlNuevo() {
+        AnilloConsistente anillo = new AnilloConsistente(TRES_SHARDS, NODOS_VIRTUALES);
+        AnilloConsistente ampliado = new AnilloConsistente(
+                List.of("shard-0", "shard-1", "shard-2", "shard-3"), NODOS_VIRTUALES);
+
+        int movidas = 0;
+        for (long id = 1; id <= CLAVES; id++) {
+            String antes = anillo.shardDe(id);
+            String despues = ampliado.shardDe(id);
+            if (!antes.equals(despues)) {
+                assertThat(despues).isEqualTo("shard-3");
+                movidas++;
+            }
+        }
+
+        // El nuevo shard se queda con alrededor de 1/4 de las claves
+        assertThat(movidas / (double) CLAVES).isBetween(0.2, 0.3);
+    }
+
+    @Test
+    void unAnilloSinShardsEsInvalido() {
+        assertThatThrownBy(() -> new AnilloConsistente(List.of(), NODOS_VIRTUALES))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+}
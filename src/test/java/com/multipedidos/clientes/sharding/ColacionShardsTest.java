@@ -0,0 +1,38 @@
+package com.multipedidos.clientes.sharding;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Pruebas del orden de texto con el que se mezclan los resultados de los shards.
+ */
+class ColacionShardsTest {
+
+    private static final List<String> NOMBRES = List.of("Álvaro", "ana", "Zoe", "Ana", "zoe", "Beatriz");
+
+    @Test
+    void laColacionUnicodeNoDistingueMayusculasNiAcentos() {
+        List<String> ordenados = ordenar(ColacionShards.UNICODE);
+
+        assertThat(ColacionShards.UNICODE.comparador().compare("ana", "Ana")).isZero();
+        assertThat(ColacionShards.UNICODE.comparador().compare("Alvaro", "Álvaro")).isZero();
+        assertThat(ordenados.subList(0, 3)).containsExactlyInAnyOrder("Álvaro", "ana", "Ana");
+        assertThat(ordenados.get(3)).isEqualTo("Beatriz");
+    }
+
+    @Test
+    void laColacionBinariaOrdenaPorUnidadesUtf16ComoH2() {
+        // Mayúsculas antes que minúsculas y las letras acentuadas después de la z
+        assertThat(ordenar(ColacionShards.BINARIA)).containsExactly("Ana", "Beatriz", "Zoe", "ana", "zoe", "Álvaro");
+    }
+
+    private static List<String> ordenar(ColacionShards colacion) {
+        List<String> ordenados = new ArrayList<>(NOMBRES);
+        ordenados.sort(colacion.comparador());
+        return ordenados;
+    }
+}